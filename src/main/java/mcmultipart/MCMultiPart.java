@@ -1,7 +1,5 @@
 package mcmultipart;
 
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiConsumer;
@@ -25,7 +23,6 @@ import mcmultipart.api.slot.EnumCornerSlot;
 import mcmultipart.api.slot.EnumEdgeSlot;
 import mcmultipart.api.slot.EnumFaceSlot;
 import mcmultipart.api.slot.IPartSlot;
-import mcmultipart.api.slot.ISlottedContainer;
 import mcmultipart.api.slot.SlotUtil;
 import mcmultipart.block.BlockMultipartContainer;
 import mcmultipart.block.TileMultipartContainer;
@@ -38,7 +35,6 @@ import mcmultipart.network.MultipartNetworkHandler;
 import mcmultipart.slot.SlotRegistry;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
-import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ObjectIntIdentityMap;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -49,6 +45,7 @@ import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLModIdMappingEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.registry.FMLControlledNamespacedRegistry;
@@ -151,6 +148,11 @@ public class MCMultiPart {
 
     }
 
+    @EventHandler
+    public void onIdMapping(FMLModIdMappingEvent event) {
+        SlotRegistry.INSTANCE.onIdsRemapped();
+    }
+
     public <T> void initAPI() throws Exception {
         ReflectionHelper.setPrivateValue(MultipartHelper.class, null, //
                 (BiFunction<World, BlockPos, IMultipartContainer>) TileMultipartContainer::createTileFromWorldInfo,
@@ -163,13 +165,7 @@ public class MCMultiPart {
         ReflectionHelper.setPrivateValue(MultipartCapabilityHelper.class, null, //
                 (BiConsumer<Capability<T>, Function<List<T>, T>>) CapabilityJoiner::registerCapabilityJoiner, "registerJoiner");
 
-        MethodHandle viewSide = MethodHandles.lookup().unreflect(SlotRegistry.class.getMethod("viewContainer", ISlottedContainer.class,
-                Function.class, Function.class, Object.class, boolean.class, EnumFacing.class)).bindTo(SlotRegistry.INSTANCE);
-        MethodHandle viewEdge = MethodHandles.lookup().unreflect(SlotRegistry.class.getMethod("viewContainer", ISlottedContainer.class,
-                Function.class, Function.class, Object.class, boolean.class, EnumEdgeSlot.class, EnumFacing.class))
-                .bindTo(SlotRegistry.INSTANCE);
-        ReflectionHelper.setPrivateValue(SlotUtil.class, null, viewSide, "viewSide");
-        ReflectionHelper.setPrivateValue(SlotUtil.class, null, viewEdge, "viewEdge");
+        ReflectionHelper.setPrivateValue(SlotUtil.class, null, SlotRegistry.INSTANCE, "viewer");
     }
 
 }
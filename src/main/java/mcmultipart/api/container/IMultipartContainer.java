@@ -7,6 +7,7 @@ import com.google.common.base.Preconditions;
 
 import mcmultipart.api.multipart.IMultipart;
 import mcmultipart.api.multipart.IMultipartTile;
+import mcmultipart.api.multipart.OcclusionMask;
 import mcmultipart.api.slot.IPartSlot;
 import mcmultipart.api.slot.ISlottedContainer;
 import mcmultipart.multipart.MultipartRegistry;
@@ -37,6 +38,14 @@ public interface IMultipartContainer extends ISlottedContainer<IPartInfo> {
 
     public Map<IPartSlot, ? extends IPartInfo> getParts();
 
+    public default OcclusionMask getOcclusionMask() {
+        OcclusionMask mask = new OcclusionMask();
+        for (IPartInfo info : getParts().values()) {
+            mask.add(info.getOcclusionMask());
+        }
+        return mask;
+    }
+
     public default boolean canAddPart(IPartSlot slot, IBlockState state) {
         IMultipart part = MultipartRegistry.INSTANCE.getPart(state.getBlock());
         Preconditions.checkState(part != null, "The blockstate " + state + " could not be converted to a multipart!");
@@ -65,4 +74,8 @@ public interface IMultipartContainer extends ISlottedContainer<IPartInfo> {
         }
     }
 
+    // Called when the render bounding box or max render distance of a part's tile changes without anything else changing
+    public default void notifyRenderBoundsChange(IPartInfo part) {
+    }
+
 }
@@ -1,9 +1,14 @@
 package mcmultipart.api.container;
 
+import java.util.List;
+
 import mcmultipart.api.multipart.IMultipart;
 import mcmultipart.api.multipart.IMultipartTile;
+import mcmultipart.api.multipart.MultipartOcclusionHelper;
+import mcmultipart.api.multipart.OcclusionMask;
 import mcmultipart.api.slot.IPartSlot;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -29,6 +34,18 @@ public interface IPartInfo {
 
     public IMultipartTile getTile();
 
+    public default List<AxisAlignedBB> getOcclusionBoxes() {
+        return getPart().getOcclusionBoxes(this);
+    }
+
+    public default AxisAlignedBB getOcclusionBounds() {
+        return MultipartOcclusionHelper.getBounds(getOcclusionBoxes());
+    }
+
+    public default OcclusionMask getOcclusionMask() {
+        return OcclusionMask.of(getOcclusionBoxes());
+    }
+
     public default void remove() {
         getContainer().removePart(getSlot());
     }
@@ -37,4 +54,8 @@ public interface IPartInfo {
         getContainer().notifyChange(this);
     }
 
+    public default void notifyRenderBoundsChange() {
+        getContainer().notifyRenderBoundsChange(this);
+    }
+
 }
@@ -79,7 +79,7 @@ public interface IMultipart {
     }
 
     public default boolean testIntersection(IPartInfo self, IPartInfo otherPart) {
-        return MultipartOcclusionHelper.testBoxIntersection(this.getOcclusionBoxes(self), otherPart.getPart().getOcclusionBoxes(otherPart));
+        return MultipartOcclusionHelper.testBoxIntersection(self, otherPart);
     }
 
     public default RayTraceResult collisionRayTrace(IPartInfo part, Vec3d start, Vec3d end) {
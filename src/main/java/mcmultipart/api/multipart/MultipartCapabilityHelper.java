@@ -31,8 +31,8 @@ public class MultipartCapabilityHelper {
     }
 
     public static boolean hasCapability(IMultipartContainer container, Capability<?> capability, EnumFacing face) {
-        if (SlotUtil.viewContainer(container, i -> i.getTile() != null && i.getTile().hasCapability(capability, face),
-                l -> l.stream().anyMatch(a -> a), false, true, face)) {
+        if (SlotUtil.viewContainerBoolean(container, i -> i.getTile() != null && i.getTile().hasCapability(capability, face),
+                (a, b) -> a || b, false, face)) {
             return true;
         }
         return false;
@@ -51,8 +51,8 @@ public class MultipartCapabilityHelper {
     }
 
     public static boolean hasCapability(IMultipartContainer container, Capability<?> capability, EnumEdgeSlot edge, EnumFacing face) {
-        if (SlotUtil.viewContainer(container, i -> i.getTile() != null && i.getTile().hasCapability(capability, face),
-                l -> l.stream().anyMatch(a -> a), false, true, edge, face)) {
+        if (SlotUtil.viewContainerBoolean(container, i -> i.getTile() != null && i.getTile().hasCapability(capability, face),
+                (a, b) -> a || b, false, edge, face)) {
             return true;
         }
         return false;
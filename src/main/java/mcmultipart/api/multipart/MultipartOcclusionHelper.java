@@ -1,9 +1,7 @@
 package mcmultipart.api.multipart;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import mcmultipart.api.container.IMultipartContainer;
 import mcmultipart.api.container.IPartInfo;
@@ -17,7 +15,46 @@ public class MultipartOcclusionHelper {
     private static final Predicate<IPartSlot> NEVER = a -> false;
 
     public static boolean testBoxIntersection(Collection<AxisAlignedBB> boxes1, Collection<AxisAlignedBB> boxes2) {
-        return boxes1.stream().anyMatch(b1 -> boxes2.stream().anyMatch(b2 -> b1.intersectsWith(b2)));
+        for (AxisAlignedBB b1 : boxes1) {
+            for (AxisAlignedBB b2 : boxes2) {
+                if (b1.intersectsWith(b2)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static boolean testBoxIntersection(AxisAlignedBB bounds1, Collection<AxisAlignedBB> boxes1, AxisAlignedBB bounds2,
+            Collection<AxisAlignedBB> boxes2) {
+        // If the bounds of both sets of boxes don't intersect, none of the boxes will
+        if (!testBoxIntersection(bounds1, bounds2)) {
+            return false;
+        }
+        return testBoxIntersection(boxes1, boxes2);
+    }
+
+    public static boolean testBoxIntersection(IPartInfo part1, IPartInfo part2) {
+        if (!testBoxIntersection(part1.getOcclusionBounds(), part2.getOcclusionBounds())) {
+            return false;
+        }
+        OcclusionMask mask1 = part1.getOcclusionMask(), mask2 = part2.getOcclusionMask();
+        if (!mask1.intersects(mask2)) {
+            return false;
+        }
+        return (mask1.isExact() && mask2.isExact()) || testBoxIntersection(part1.getOcclusionBoxes(), part2.getOcclusionBoxes());
+    }
+
+    private static boolean testBoxIntersection(AxisAlignedBB bounds1, AxisAlignedBB bounds2) {
+        return bounds1 != null && bounds2 != null && bounds1.intersectsWith(bounds2);
+    }
+
+    public static AxisAlignedBB getBounds(Collection<AxisAlignedBB> boxes) {
+        AxisAlignedBB bounds = null;
+        for (AxisAlignedBB box : boxes) {
+            bounds = bounds == null ? box : bounds.union(box);
+        }
+        return bounds;
     }
 
     public static boolean testPartIntersection(IPartInfo part1, IPartInfo part2) {
@@ -39,8 +76,30 @@ public class MultipartOcclusionHelper {
 
     public static boolean testContainerBoxIntersection(IMultipartContainer container, Collection<AxisAlignedBB> boxes,
             Predicate<IPartSlot> ignore) {
-        return testBoxIntersection(container.getParts().values().stream().filter(i -> !ignore.test(i.getSlot()))
-                .map(i -> i.getPart().getOcclusionBoxes(i)).flatMap(List::stream).collect(Collectors.toList()), boxes);
+        AxisAlignedBB bounds = getBounds(boxes);
+        if (bounds == null) {
+            return false;
+        }
+        OcclusionMask mask = OcclusionMask.of(boxes);
+        if (ignore == NEVER) {
+            OcclusionMask containerMask = container.getOcclusionMask();
+            if (!mask.intersects(containerMask)) {
+                return false;
+            } else if (mask.isExact() && containerMask.isExact()) {
+                return true;
+            }
+        }
+        for (IPartInfo info : container.getParts().values()) {
+            if (ignore.test(info.getSlot()) || !testBoxIntersection(info.getOcclusionBounds(), bounds)) {
+                continue;
+            }
+            OcclusionMask partMask = info.getOcclusionMask();
+            if (partMask.intersects(mask)
+                    && ((partMask.isExact() && mask.isExact()) || testBoxIntersection(info.getOcclusionBoxes(), boxes))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public static boolean testContainerPartIntersection(IBlockAccess world, BlockPos pos, IPartInfo part) {
@@ -56,7 +115,12 @@ public class MultipartOcclusionHelper {
     }
 
     public static boolean testContainerPartIntersection(IMultipartContainer container, IPartInfo part, Predicate<IPartSlot> ignore) {
-        return container.getParts().values().stream().filter(i -> !ignore.test(i.getSlot())).anyMatch(i -> testPartIntersection(part, i));
+        for (IPartInfo info : container.getParts().values()) {
+            if (!ignore.test(info.getSlot()) && testPartIntersection(part, info)) {
+                return true;
+            }
+        }
+        return false;
     }
 
 }
@@ -13,33 +13,33 @@ public class MultipartRedstoneHelper {
     // Multipart-only lookups
 
     public static boolean canConnectRedstone(IMultipartContainer container, EnumFacing side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().canConnectRedstone(i.getWorld(), i.getPos(), i, side),
-                l -> l.stream().anyMatch(c -> c), false, true, side);
+        return SlotUtil.viewContainerBoolean(container, i -> i.getPart().canConnectRedstone(i.getWorld(), i.getPos(), i, side),
+                (a, b) -> a || b, false, side);
     }
 
     public static int getWeakPower(IMultipartContainer container, EnumFacing side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().getWeakPower(i.getWorld(), i.getPos(), i, side),
-                l -> l.stream().max(Integer::compare).get(), 0, true, side);
+        return SlotUtil.viewContainerInt(container, i -> i.getPart().getWeakPower(i.getWorld(), i.getPos(), i, side), Math::max, 0,
+                side);
     }
 
     public static int getStrongPower(IMultipartContainer container, EnumFacing side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().getStrongPower(i.getWorld(), i.getPos(), i, side),
-                l -> l.stream().max(Integer::compare).get(), 0, true, side);
+        return SlotUtil.viewContainerInt(container, i -> i.getPart().getStrongPower(i.getWorld(), i.getPos(), i, side), Math::max, 0,
+                side);
     }
 
     public static boolean canConnectRedstone(IMultipartContainer container, EnumEdgeSlot edge, EnumFacing side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().canConnectRedstone(i.getWorld(), i.getPos(), i, side),
-                l -> l.stream().anyMatch(c -> c), false, true, edge, side);
+        return SlotUtil.viewContainerBoolean(container, i -> i.getPart().canConnectRedstone(i.getWorld(), i.getPos(), i, side),
+                (a, b) -> a || b, false, edge, side);
     }
 
     public static int getWeakPower(IMultipartContainer container, EnumEdgeSlot edge, EnumFacing side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().getWeakPower(i.getWorld(), i.getPos(), i, side),
-                l -> l.stream().max(Integer::compare).get(), 0, true, edge, side);
+        return SlotUtil.viewContainerInt(container, i -> i.getPart().getWeakPower(i.getWorld(), i.getPos(), i, side), Math::max, 0,
+                edge, side);
     }
 
     public static int getStrongPower(IMultipartContainer container, EnumEdgeSlot edge, EnumFacing side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().getStrongPower(i.getWorld(), i.getPos(), i, side),
-                l -> l.stream().max(Integer::compare).get(), 0, true, edge, side);
+        return SlotUtil.viewContainerInt(container, i -> i.getPart().getStrongPower(i.getWorld(), i.getPos(), i, side), Math::max, 0,
+                edge, side);
     }
 
     // Multipart lookups with world fallback
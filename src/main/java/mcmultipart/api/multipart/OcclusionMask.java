@@ -0,0 +1,105 @@
+package mcmultipart.api.multipart;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import net.minecraft.util.math.AxisAlignedBB;
+
+// A voxelized version of a set of occlusion boxes, with 1/16th of a block per voxel.
+// Boxes that don't line up with the voxel grid are rounded outwards and mark the mask as inexact, so two masks that don't intersect
+// are guaranteed to come from boxes that don't intersect, but two inexact masks that do need to be checked against the actual boxes.
+// Boxes that reach outside of the block or are flat can't be represented at all, so a mask containing any intersects every non-empty mask.
+public final class OcclusionMask {
+
+    public static final int RESOLUTION = 16;
+
+    private final long[] bits = new long[RESOLUTION * RESOLUTION * RESOLUTION / 64];
+    private boolean exact = true, empty = true, partial = false;
+
+    public static OcclusionMask of(Collection<AxisAlignedBB> boxes) {
+        OcclusionMask mask = new OcclusionMask();
+        for (AxisAlignedBB box : boxes) {
+            mask.add(box);
+        }
+        return mask;
+    }
+
+    public void add(AxisAlignedBB box) {
+        int x0 = min(box.minX), x1 = max(box.maxX);
+        int y0 = min(box.minY), y1 = max(box.maxY);
+        int z0 = min(box.minZ), z1 = max(box.maxZ);
+        exact &= isAligned(box.minX) && isAligned(box.maxX) && isAligned(box.minY) && isAligned(box.maxY) && isAligned(box.minZ)
+                && isAligned(box.maxZ);
+        if (!isInRange(box.minX, box.maxX) || !isInRange(box.minY, box.maxY) || !isInRange(box.minZ, box.maxZ)) {
+            partial = true;
+            exact = empty = false;
+        }
+        if (x0 >= x1 || y0 >= y1 || z0 >= z1) {
+            return;
+        }
+        // Each long holds 4 rows of 16 voxels along the Z axis
+        long row = (-1L >>> (64 - (z1 - z0))) << z0;
+        for (int x = x0; x < x1; x++) {
+            for (int y = y0; y < y1; y++) {
+                bits[x * 4 + (y >>> 2)] |= row << ((y & 3) * 16);
+            }
+        }
+        empty = false;
+    }
+
+    public void add(OcclusionMask mask) {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] |= mask.bits[i];
+        }
+        exact &= mask.exact;
+        empty &= mask.empty;
+        partial |= mask.partial;
+    }
+
+    public boolean intersects(OcclusionMask mask) {
+        if (empty || mask.empty) {
+            return false;
+        }
+        if (partial || mask.partial) {
+            return true;
+        }
+        for (int i = 0; i < bits.length; i++) {
+            if ((bits[i] & mask.bits[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public void clear() {
+        Arrays.fill(bits, 0L);
+        exact = empty = true;
+        partial = false;
+    }
+
+    private static int min(double value) {
+        return Math.max(0, Math.min(RESOLUTION, (int) Math.floor(value * RESOLUTION)));
+    }
+
+    private static int max(double value) {
+        return Math.max(0, Math.min(RESOLUTION, (int) Math.ceil(value * RESOLUTION)));
+    }
+
+    private static boolean isInRange(double min, double max) {
+        return min >= 0 && max <= 1 && min < max;
+    }
+
+    private static boolean isAligned(double value) {
+        double scaled = value * RESOLUTION;
+        return scaled >= 0 && scaled <= RESOLUTION && scaled == Math.rint(scaled);
+    }
+
+}
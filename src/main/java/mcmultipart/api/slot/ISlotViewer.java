@@ -0,0 +1,32 @@
+package mcmultipart.api.slot;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import mcmultipart.api.slot.SlotUtil.BooleanBinaryOperator;
+import net.minecraft.util.EnumFacing;
+
+public interface ISlotViewer {
+
+    public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
+            boolean ignoreNull, EnumFacing face);
+
+    public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
+            boolean ignoreNull, EnumEdgeSlot edge, EnumFacing face);
+
+    public <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator joiner, int startVal,
+            EnumFacing face);
+
+    public <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator joiner, int startVal,
+            EnumEdgeSlot edge, EnumFacing face);
+
+    public <T> boolean viewContainerBoolean(ISlottedContainer<T> container, Predicate<T> converter, BooleanBinaryOperator joiner,
+            boolean startVal, EnumFacing face);
+
+    public <T> boolean viewContainerBoolean(ISlottedContainer<T> container, Predicate<T> converter, BooleanBinaryOperator joiner,
+            boolean startVal, EnumEdgeSlot edge, EnumFacing face);
+
+}
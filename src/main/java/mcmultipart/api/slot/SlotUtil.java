@@ -1,33 +1,52 @@
 package mcmultipart.api.slot;
 
-import java.lang.invoke.MethodHandle;
 import java.util.List;
 import java.util.function.Function;
-
-import com.google.common.base.Throwables;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import net.minecraft.util.EnumFacing;
 
 public class SlotUtil {
 
-    private static MethodHandle viewSide, viewEdge;
+    private static ISlotViewer viewer;
 
     public static <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
             boolean ignoreNull, EnumFacing face) {
-        try {
-            return (O) viewSide.invoke(container, converter, joiner, startVal, ignoreNull, face);
-        } catch (Throwable e) {
-            throw Throwables.propagate(e);
-        }
+        return viewer.viewContainer(container, converter, joiner, startVal, ignoreNull, face);
     }
 
     public static <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
             boolean ignoreNull, EnumEdgeSlot edge, EnumFacing face) {
-        try {
-            return (O) viewEdge.invoke(container, converter, joiner, startVal, ignoreNull, edge, face);
-        } catch (Throwable e) {
-            throw Throwables.propagate(e);
-        }
+        return viewer.viewContainer(container, converter, joiner, startVal, ignoreNull, edge, face);
+    }
+
+    public static <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator joiner,
+            int startVal, EnumFacing face) {
+        return viewer.viewContainerInt(container, converter, joiner, startVal, face);
+    }
+
+    public static <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator joiner,
+            int startVal, EnumEdgeSlot edge, EnumFacing face) {
+        return viewer.viewContainerInt(container, converter, joiner, startVal, edge, face);
+    }
+
+    public static <T> boolean viewContainerBoolean(ISlottedContainer<T> container, Predicate<T> converter, BooleanBinaryOperator joiner,
+            boolean startVal, EnumFacing face) {
+        return viewer.viewContainerBoolean(container, converter, joiner, startVal, face);
+    }
+
+    public static <T> boolean viewContainerBoolean(ISlottedContainer<T> container, Predicate<T> converter, BooleanBinaryOperator joiner,
+            boolean startVal, EnumEdgeSlot edge, EnumFacing face) {
+        return viewer.viewContainerBoolean(container, converter, joiner, startVal, edge, face);
+    }
+
+    @FunctionalInterface
+    public interface BooleanBinaryOperator {
+
+        public boolean applyAsBoolean(boolean left, boolean right);
+
     }
 
 }
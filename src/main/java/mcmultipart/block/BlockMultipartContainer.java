@@ -10,15 +10,12 @@ import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.tuple.Pair;
-
 import mcmultipart.MCMultiPart;
-import mcmultipart.RayTraceHelper;
 import mcmultipart.api.container.IMultipartContainerBlock;
 import mcmultipart.api.container.IPartInfo;
 import mcmultipart.api.slot.IPartSlot;
-import mcmultipart.api.slot.SlotUtil;
 import mcmultipart.multipart.PartInfo;
+import mcmultipart.slot.SlotRegistry;
 import mcmultipart.util.PropertyClientInfo;
 import net.minecraft.block.Block;
 import net.minecraft.block.ITileEntityProvider;
@@ -81,23 +78,12 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
     @Override
     public void addCollisionBoxToList(IBlockState state, World world, BlockPos pos, AxisAlignedBB entityBox,
             List<AxisAlignedBB> collidingBoxes, Entity entity, boolean unknown) {
-        forEach(world, pos, i -> i.getPart().addCollisionBoxToList(i, entityBox, collidingBoxes, entity, unknown));
+        getTile(world, pos).ifPresent(t -> t.addCollisionBoxes(entityBox, collidingBoxes, entity, unknown));
     }
 
     @Override
     public RayTraceResult collisionRayTrace(IBlockState state, World world, BlockPos pos, Vec3d start, Vec3d end) {
-        Optional<TileMultipartContainer> te = getTile(world, pos);
-        return te.map(t -> t.getParts().values()//
-                .stream()//
-                .map(i -> Pair.of(i, i.getPart().collisionRayTrace(i, start, end)))//
-                .filter(p -> p.getValue() != null)//
-                .min((a, b) -> Double.compare(a.getValue().hitVec.squareDistanceTo(start), b.getValue().hitVec.squareDistanceTo(start)))//
-                .map(p -> {
-                    RayTraceResult hit = new RayTraceResult(p.getValue().hitVec, p.getValue().sideHit, p.getValue().getBlockPos());
-                    hit.hitInfo = p.getValue();
-                    hit.subHit = MCMultiPart.slotRegistry.getId(p.getKey().getSlot());
-                    return hit;
-                }).orElse(null)).orElse(null);
+        return getTile(world, pos).map(t -> t.collisionRayTrace(start, end)).orElse(null);
     }
 
     @Override
@@ -142,10 +128,8 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
 
     @Override
     public IBlockState getExtendedState(IBlockState state, IBlockAccess world, BlockPos pos) {
-        List<PartInfo.ClientInfo> info = getTile(world, pos).map(c -> c.getParts().values()//
-                .stream()//
-                .map(i -> i.getInfo(world, pos))//
-                .collect(Collectors.toList())).orElse(Collections.emptyList());
+        List<PartInfo.ClientInfo> info = getTile(world, pos).map(c -> c.getClientInfo(world, pos))
+                .orElse(Collections.emptyList());
         return ((IExtendedBlockState) super.getExtendedState(state, world, pos)).withProperty(PROPERTY_INFO, info);
     }
 
@@ -156,8 +140,7 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
 
     @Override
     public boolean removedByPlayer(IBlockState state, World world, BlockPos pos, EntityPlayer player, boolean willHarvest) {
-        Pair<Vec3d, Vec3d> vectors = RayTraceHelper.getRayTraceVectors(player);
-        RayTraceResult hit = collisionRayTrace(state, world, pos, vectors.getLeft(), vectors.getRight());
+        RayTraceResult hit = rayTrace(world, pos, player);
         Optional<TileMultipartContainer> tile = getTile(world, pos);
         if (hit != null && tile.isPresent()) {
             if (!world.isRemote) {
@@ -174,9 +157,14 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
         return false;
     }
 
+    @Override
+    public boolean doesSideBlockRendering(IBlockState state, IBlockAccess world, BlockPos pos, EnumFacing face) {
+        return getTile(world, pos).map(t -> t.isFaceCovered(face)).orElse(false);
+    }
+
     @Override
     public boolean isSideSolid(IBlockState state, IBlockAccess world, BlockPos pos, EnumFacing side) {
-        return anyMatch(world, pos, i -> i.getPart().isSideSolid(i.wrapAsNeeded(world), pos, i, side));
+        return getTile(world, pos).map(t -> t.isSideSolid(world, pos, side)).orElse(false);
     }
 
     @Override
@@ -187,8 +175,7 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
     @Override
     @SideOnly(Side.CLIENT)
     public boolean addDestroyEffects(World world, BlockPos pos, ParticleManager manager) {
-        Pair<Vec3d, Vec3d> vectors = RayTraceHelper.getRayTraceVectors(MCMultiPart.proxy.getPlayer());
-        RayTraceResult hit = collisionRayTrace(getDefaultState(), world, pos, vectors.getLeft(), vectors.getRight());
+        RayTraceResult hit = rayTrace(world, pos, MCMultiPart.proxy.getPlayer());
         if (hit != null) {
             IPartInfo part = getTile(world, pos).get().get(MCMultiPart.slotRegistry.getObjectById(hit.subHit)).get();
             if (!part.getPart().addDestroyEffects(part, manager)) {
@@ -267,31 +254,29 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
 
     @Override
     public boolean canConnectRedstone(IBlockState state, IBlockAccess world, BlockPos pos, EnumFacing side) {
-        return getTile(world, pos)
-                .map(t -> SlotUtil.viewContainer(t, i -> i.getPart().canConnectRedstone(((PartInfo) i).wrapAsNeeded(world), pos, i, side),
-                        l -> l.stream().anyMatch(c -> c), false, true, side.getOpposite()))
-                .orElse(false);
+        Optional<TileMultipartContainer> tile = getTile(world, pos);
+        return tile.isPresent() && SlotRegistry.INSTANCE.viewContainerBoolean(tile.get(),
+                i -> i.getPart().canConnectRedstone(((PartInfo) i).wrapAsNeeded(world), pos, i, side), (a, b) -> a || b, false,
+                side.getOpposite());
     }
 
     @Override
     public int getWeakPower(IBlockState state, IBlockAccess world, BlockPos pos, EnumFacing side) {
-        return getTile(world, pos)
-                .map(t -> SlotUtil.viewContainer(t, i -> i.getPart().getWeakPower(((PartInfo) i).wrapAsNeeded(world), pos, i, side),
-                        l -> l.stream().max(Integer::compare).get(), 0, true, side.getOpposite()))
-                .orElse(0);
+        Optional<TileMultipartContainer> tile = getTile(world, pos);
+        return tile.isPresent() ? SlotRegistry.INSTANCE.viewContainerInt(tile.get(),
+                i -> i.getPart().getWeakPower(((PartInfo) i).wrapAsNeeded(world), pos, i, side), Math::max, 0, side.getOpposite()) : 0;
     }
 
     @Override
     public int getStrongPower(IBlockState state, IBlockAccess world, BlockPos pos, EnumFacing side) {
-        return getTile(world, pos)
-                .map(t -> SlotUtil.viewContainer(t, i -> i.getPart().getStrongPower(((PartInfo) i).wrapAsNeeded(world), pos, i, side),
-                        l -> l.stream().max(Integer::compare).get(), 0, true, side.getOpposite()))
-                .orElse(0);
+        Optional<TileMultipartContainer> tile = getTile(world, pos);
+        return tile.isPresent() ? SlotRegistry.INSTANCE.viewContainerInt(tile.get(),
+                i -> i.getPart().getStrongPower(((PartInfo) i).wrapAsNeeded(world), pos, i, side), Math::max, 0, side.getOpposite()) : 0;
     }
 
     @Override
     public boolean canCreatureSpawn(IBlockState state, IBlockAccess world, BlockPos pos, SpawnPlacementType type) {
-        return anyMatch(world, pos, i -> i.getPart().canCreatureSpawn(i.wrapAsNeeded(world), pos, i, type));
+        return getTile(world, pos).map(t -> t.canCreatureSpawn(world, pos, type)).orElse(false);
     }
 
     @Override
@@ -346,30 +331,14 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
         return super.getFlammability(world, pos, face);// TODO: Maybe?
     }
 
-    private boolean callingLightOpacity = false;
-
     @Override
     public int getLightOpacity(IBlockState state, IBlockAccess world, BlockPos pos) {
-        if (callingLightOpacity) {
-            return add(world, pos, i -> i.getPart().getLightOpacity(i.getState()), 255);
-        }
-        callingLightOpacity = true;
-        int res = add(world, pos, i -> i.getPart().getLightOpacity(i.wrapAsNeeded(world), pos, i), 255);
-        callingLightOpacity = false;
-        return res;
+        return getTile(world, pos).map(t -> t.getLightOpacity(world, pos)).orElse(0);
     }
 
-    private boolean callingLightValue = false;
-
     @Override
     public int getLightValue(IBlockState state, IBlockAccess world, BlockPos pos) {
-        if (callingLightValue) {
-            return max(world, pos, i -> i.getPart().getLightValue(i.getState()));
-        }
-        callingLightValue = true;
-        int res = max(world, pos, i -> i.getPart().getLightValue(i.wrapAsNeeded(world), pos, i));
-        callingLightValue = false;
-        return res;
+        return getTile(world, pos).map(t -> t.getLightValue(world, pos)).orElse(0);
     }
 
     @Override
@@ -388,8 +357,7 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
 
     @Override
     public float getPlayerRelativeBlockHardness(IBlockState state, EntityPlayer player, World world, BlockPos pos) {
-        Pair<Vec3d, Vec3d> vectors = RayTraceHelper.getRayTraceVectors(player);
-        RayTraceResult hit = collisionRayTrace(getDefaultState(), world, pos, vectors.getLeft(), vectors.getRight());
+        RayTraceResult hit = rayTrace(world, pos, player);
         if (hit != null) {
             return getTile(world, pos).map(t -> t.get(MCMultiPart.slotRegistry.getObjectById(hit.subHit)).get())
                     .map(i -> i.getPart().getPlayerRelativeBlockHardness(i, (RayTraceResult) hit.hitInfo, player)).orElse(0F);
@@ -505,14 +473,17 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
 
     @Override
     public void neighborChanged(IBlockState state, World worldIn, BlockPos pos, Block blockIn, BlockPos fromPos) {
+        getTile(worldIn, pos).ifPresent(t -> {
+            t.invalidateCollisionBoxes();
+            t.invalidateOcclusion();
+        });
         forEach(worldIn, pos, i -> i.getPart().neighborChanged(i, blockIn, fromPos));
     }
 
     @Override
     public boolean onBlockActivated(World world, BlockPos pos, IBlockState state, EntityPlayer player, EnumHand hand, EnumFacing facing,
             float hitX, float hitY, float hitZ) {
-        Pair<Vec3d, Vec3d> vectors = RayTraceHelper.getRayTraceVectors(player);
-        RayTraceResult hit = collisionRayTrace(getDefaultState(), world, pos, vectors.getLeft(), vectors.getRight());
+        RayTraceResult hit = rayTrace(world, pos, player);
         if (hit != null) {
             return getTile(world, pos).map(t -> t.get(MCMultiPart.slotRegistry.getObjectById(hit.subHit)).get())
                     .map(i -> i.getPart().onPartActivated(i, player, hand, ((RayTraceResult) hit.hitInfo))).orElse(false);
@@ -522,8 +493,7 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
 
     @Override
     public void onBlockClicked(World world, BlockPos pos, EntityPlayer player) {
-        Pair<Vec3d, Vec3d> vectors = RayTraceHelper.getRayTraceVectors(player);
-        RayTraceResult hit = collisionRayTrace(getDefaultState(), world, pos, vectors.getLeft(), vectors.getRight());
+        RayTraceResult hit = rayTrace(world, pos, player);
         if (hit != null) {
             getTile(world, pos).map(t -> t.get(MCMultiPart.slotRegistry.getObjectById(hit.subHit)).get())
                     .ifPresent(i -> i.getPart().onPartClicked(i, player, ((RayTraceResult) hit.hitInfo)));
@@ -573,11 +543,11 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
 
     @Override
     public void updateTick(World world, BlockPos pos, IBlockState state, Random rand) {
-        forEach(world, pos, i -> {
-            if (i.checkAndRemoveTick()) {
-                i.getPart().updateTick(i, rand);
-            }
-        });
+        getTile(world, pos).ifPresent(t -> t.updateScheduledTicks(rand));
+    }
+
+    private RayTraceResult rayTrace(World world, BlockPos pos, EntityPlayer player) {
+        return getTile(world, pos).map(t -> t.rayTrace(player)).orElse(null);
     }
 
     private void forEach(IBlockAccess world, BlockPos pos, Consumer<PartInfo> consumer) {
@@ -592,11 +562,6 @@ public class BlockMultipartContainer extends Block implements ITileEntityProvide
         return getTile(world, pos).map(t -> t.getParts().values().stream().allMatch(predicate)).orElse(false);
     }
 
-    private int add(IBlockAccess world, BlockPos pos, ToIntFunction<PartInfo> converter, int max) {
-        return Math.min(
-                getTile(world, pos).map(t -> t.getParts().values().stream().mapToInt(converter).reduce(0, (a, b) -> a + b)).orElse(0), max);
-    }
-
     private int max(IBlockAccess world, BlockPos pos, ToIntFunction<PartInfo> converter) {
         return getTile(world, pos).map(t -> t.getParts().values().stream().mapToInt(converter).max().orElse(0)).orElse(0);
     }
@@ -0,0 +1,113 @@
+package mcmultipart.block;
+
+import java.util.Arrays;
+
+// A min-heap of (due tick, slot ID) pairs kept in primitive arrays, ordered by tick and then by slot ID
+final class ScheduledTickQueue {
+
+    private long[] ticks = new long[4];
+    private int[] slots = new int[4];
+    private int size = 0;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long peekTick() {
+        return ticks[0];
+    }
+
+    public int peekSlot() {
+        return slots[0];
+    }
+
+    public void poll() {
+        if (--size > 0) {
+            ticks[0] = ticks[size];
+            slots[0] = slots[size];
+            siftDown(0);
+        }
+    }
+
+    public void add(long tick, int slot) {
+        for (int i = 0; i < size; i++) {
+            if (ticks[i] == tick && slots[i] == slot) {
+                return;
+            }
+        }
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        ticks[size] = tick;
+        slots[size] = slot;
+        siftUp(size++);
+    }
+
+    public boolean contains(int slot) {
+        for (int i = 0; i < size; i++) {
+            if (slots[i] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void removeSlot(int slot) {
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (slots[i] != slot) {
+                ticks[newSize] = ticks[i];
+                slots[newSize++] = slots[i];
+            }
+        }
+        if (newSize != size) {
+            size = newSize;
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!isBefore(i, parent)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && isBefore(child + 1, child)) {
+                child++;
+            }
+            if (!isBefore(child, i)) {
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private boolean isBefore(int a, int b) {
+        return ticks[a] < ticks[b] || (ticks[a] == ticks[b] && slots[a] < slots[b]);
+    }
+
+    private void swap(int a, int b) {
+        long tick = ticks[a];
+        ticks[a] = ticks[b];
+        ticks[b] = tick;
+        int slot = slots[a];
+        slots[a] = slots[b];
+        slots[b] = slot;
+    }
+
+}
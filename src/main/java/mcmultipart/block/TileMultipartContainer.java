@@ -1,25 +1,35 @@
 package mcmultipart.block;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 
+import org.apache.commons.lang3.tuple.Pair;
+
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
 
 import mcmultipart.MCMultiPart;
+import mcmultipart.RayTraceHelper;
 import mcmultipart.api.container.IMultipartContainer;
 import mcmultipart.api.container.IPartInfo;
 import mcmultipart.api.multipart.IMultipart;
 import mcmultipart.api.multipart.IMultipartTile;
 import mcmultipart.api.multipart.MultipartHelper;
 import mcmultipart.api.multipart.MultipartOcclusionHelper;
+import mcmultipart.api.multipart.OcclusionMask;
 import mcmultipart.api.ref.MCMPCapabilities;
 import mcmultipart.api.slot.IPartSlot;
-import mcmultipart.api.slot.SlotUtil;
 import mcmultipart.capability.CapabilityJoiner;
 import mcmultipart.client.TESRMultipartContainer;
 import mcmultipart.multipart.MultipartRegistry;
@@ -27,8 +37,15 @@ import mcmultipart.multipart.PartInfo;
 import mcmultipart.network.MultipartNetworkHandler;
 import mcmultipart.network.PacketMultipartAdd;
 import mcmultipart.network.PacketMultipartRemove;
+import mcmultipart.slot.SlotMap;
+import mcmultipart.slot.SlotRegistry;
+import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLiving.SpawnPlacementType;
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
@@ -40,6 +57,9 @@ import net.minecraft.util.ObjectIntIdentityMap;
 import net.minecraft.util.Rotation;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.fml.common.FMLCommonHandler;
@@ -50,10 +70,49 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 public class TileMultipartContainer extends TileEntity implements IMultipartContainer {
 
     private boolean isInWorld = true;
-    private final Map<IPartSlot, PartInfo> parts = new HashMap<>();
+    private final SlotMap<PartInfo> parts = new SlotMap<>();
     private Map<IPartSlot, NBTTagCompound> missingParts;
     private World loadingWorld;
     private boolean notifyClients = true;
+    // Capabilities are also queried from the chunk render threads, so values are only stored if the parts didn't change while they were
+    // being computed, and caches made before the last change are replaced when they're next looked up
+    private final Map<Capability<?>, CachedCapability> capabilityCache = new ConcurrentHashMap<>();
+    private volatile int capabilityGeneration = 0;
+    private BitSet ghostSlots;
+    private OcclusionMask occlusionMask;
+
+    // Aggregated part properties, cleared whenever a part is added, removed or changed.
+    // They're queried from the chunk render threads too, so nested light queries made by parts while it's being computed are detected
+    // per thread, and the computed values are only published if the parts didn't change in the meantime.
+    private static final ThreadLocal<boolean[]> computingLight = ThreadLocal.withInitial(() -> new boolean[2]);
+    private static final int LIGHT_VALUE = 0, LIGHT_OPACITY = 1;
+    private final AtomicReference<PropertyData> properties = new AtomicReference<>(new PropertyData(0, -1, -1, 0, 0, 0));
+    private volatile int version = 0;
+
+    // The last trace done for a player, shared by the block callbacks that run for the same player, view and tick
+    private int tracePlayer = -1;
+    private long traceTick = -1;
+    private Vec3d traceStart, traceEnd;
+    private RayTraceResult traceResult;
+    private int[] traceIds = new int[0];
+    private double[] traceEntries = new double[0];
+
+    // Collision boxes of the parts that don't depend on the colliding entity, offset to this container's position, and their union
+    private List<AxisAlignedBB> collisionBoxes;
+    private AxisAlignedBB collisionBounds;
+    private PartInfo[] customCollisionParts;
+
+    private volatile List<PartInfo.ClientInfo> clientInfo = Collections.emptyList();
+
+    // Part tiles that have a special renderer, split by whether they can be rendered in a batch
+    private static final IMultipartTile[] NO_TILES = new IMultipartTile[0];
+    private IMultipartTile[] fastRenderTiles, slowRenderTiles;
+    private AxisAlignedBB renderBounds;
+    private double maxRenderDistance = -1;
+
+    private ScheduledTickQueue scheduledTicks;
+    private long worldTickDue = -1;
+    private boolean tickingScheduled = false;
 
     private TileMultipartContainer(World world, BlockPos pos) {
         setWorld(world);
@@ -80,6 +139,8 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
     public void setPos(BlockPos pos) {
         super.setPos(pos);
         forEachTile(te -> te.setPos(pos));
+        invalidateCollisionBoxes();
+        invalidateRenderBounds();
     }
 
     @Override
@@ -97,15 +158,15 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         PartInfo info = new PartInfo(this, slot, part, state, tile);
 
         // If any of the slots required by this multipart aren't empty, fail.
-        Set<IPartSlot> partSlots = Sets.newIdentityHashSet();
-        partSlots.addAll(part.getGhostSlots(info));
-        partSlots.add(slot);
-        if (partSlots.stream().anyMatch(parts::containsKey)
-                || parts.values().stream().map(i -> i.getPart().getGhostSlots(i)).flatMap(Set::stream).anyMatch(partSlots::contains)) {
-            partSlots.clear();
+        BitSet occupiedGhostSlots = getGhostSlots();
+        if (isSlotTaken(slot, occupiedGhostSlots)) {
             return false;
         }
-        partSlots.clear();
+        for (IPartSlot ghostSlot : part.getGhostSlots(info)) {
+            if (isSlotTaken(ghostSlot, occupiedGhostSlots)) {
+                return false;
+            }
+        }
 
         // If the occlusion boxes of this part intesect with any other parts', fail.
         if (MultipartOcclusionHelper.testContainerPartIntersection(this, info)) {
@@ -161,7 +222,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
             getWorld().notifyBlockUpdate(getPos(), st, st, 1);
             getWorld().checkLight(getPos());
             if (notifyClients) {
-                MultipartNetworkHandler.sendToAllWatching(new PacketMultipartAdd(info), getWorld(), getPos());
+                MultipartNetworkHandler.queueToAllWatching(new PacketMultipartAdd(info), getWorld(), getPos(), slot);
             }
         }
     }
@@ -189,32 +250,468 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
                 te.validate();
                 getWorld().setTileEntity(getPos(), te);
             }
-        } else if (info.getTile() != null && info.getTile().isTickable() && !hasTickingParts()) {
-            newState = MCMultiPart.multipart.getDefaultState().withProperty(BlockMultipartContainer.PROPERTY_TICKING, false);
-            getWorld().setBlockState(getPos(), newState, 0);
-            TileMultipartContainer container = (TileMultipartContainer) MultipartHelper.getContainer(getWorld(), getPos()).get();
-            copyTo(container);
         }
         if (!getWorld().isRemote) {
             getWorld().markAndNotifyBlock(getPos(), getWorld().getChunkFromBlockCoords(getPos()), state, newState, 3);
             getWorld().checkLight(getPos());
-            MultipartNetworkHandler.sendToAllWatching(new PacketMultipartRemove(getPos(), slot), getWorld(), getPos());
+            MultipartNetworkHandler.queueToAllWatching(new PacketMultipartRemove(getPos(), slot), getWorld(), getPos(), slot);
         } else {
             getWorld().markAndNotifyBlock(getPos(), getWorld().getChunkFromBlockCoords(getPos()), state, newState, 2);
             getWorld().checkLight(getPos());
         }
     }
 
-    private boolean hasTickingParts() {
-        return parts.values().stream().map(IPartInfo::getTile).filter(t -> t != null && t.isTickable()).count() != 0;
-    }
-
     protected void add(IPartSlot slot, PartInfo partInfo) {
         parts.put(slot, partInfo);
+        invalidateCapabilities();
+        invalidateProperties();
+        invalidateTrace();
+        invalidateCollisionBoxes();
+        invalidateRenderTiles();
+        parts.forEachValue(PartInfo::invalidateClientInfo);
+        if (ghostSlots != null) {
+            partInfo.getPart().getGhostSlots(partInfo).forEach(s -> ghostSlots.set(SlotRegistry.INSTANCE.getSlotID(s)));
+        }
+        if (occlusionMask != null) {
+            occlusionMask.add(partInfo.getOcclusionMask());
+        }
     }
 
     protected void remove(IPartSlot slot) {
         parts.remove(slot);
+        invalidateCaches();
+        if (scheduledTicks != null) {
+            scheduledTicks.removeSlot(SlotRegistry.INSTANCE.getSlotID(slot));
+        }
+    }
+
+    public void scheduleTick(PartInfo part, int delay) {
+        if (scheduledTicks == null) {
+            scheduledTicks = new ScheduledTickQueue();
+        }
+        long time = getWorld().getTotalWorldTime();
+        // Ticks scheduled from a scheduled tick run on a later tick, and the world tick is scheduled once they're all done
+        long due = tickingScheduled ? Math.max(time + delay, time + 1) : time + delay;
+        scheduledTicks.add(due, SlotRegistry.INSTANCE.getSlotID(part.getSlot()));
+        if (!tickingScheduled && worldTickDue < time) {
+            // The world only keeps one pending tick per position, so only schedule one if there's none already
+            getWorld().scheduleUpdate(getPos(), MCMultiPart.multipart, delay);
+            worldTickDue = due;
+        }
+    }
+
+    public boolean hasPendingTicks(PartInfo part) {
+        return scheduledTicks != null && scheduledTicks.contains(SlotRegistry.INSTANCE.getSlotID(part.getSlot()));
+    }
+
+    public void updateScheduledTicks(Random rand) {
+        worldTickDue = -1;
+        if (scheduledTicks == null) {
+            return;
+        }
+        long time = getWorld().getTotalWorldTime();
+        tickingScheduled = true;
+        try {
+            while (!scheduledTicks.isEmpty() && scheduledTicks.peekTick() <= time) {
+                PartInfo info = parts.getById(scheduledTicks.peekSlot());
+                scheduledTicks.poll();
+                if (info != null) {
+                    info.getPart().updateTick(info, rand);
+                }
+            }
+        } finally {
+            tickingScheduled = false;
+        }
+        if (!scheduledTicks.isEmpty()) {
+            worldTickDue = scheduledTicks.peekTick();
+            getWorld().scheduleUpdate(getPos(), MCMultiPart.multipart, (int) (worldTickDue - time));
+        }
+    }
+
+    private boolean isSlotTaken(IPartSlot slot, BitSet occupiedGhostSlots) {
+        int id = SlotRegistry.INSTANCE.getSlotID(slot);
+        return id < 0 || parts.isOccupied(id) || occupiedGhostSlots.get(id);
+    }
+
+    private BitSet getGhostSlots() {
+        if (ghostSlots == null) {
+            BitSet slots = new BitSet();
+            parts.forEachValue(i -> i.getPart().getGhostSlots(i).forEach(s -> slots.set(SlotRegistry.INSTANCE.getSlotID(s))));
+            ghostSlots = slots;
+        }
+        return ghostSlots;
+    }
+
+    // Called when a part in this container changes in a way that may affect any of the cached data
+    public void invalidateCaches() {
+        invalidateCapabilities();
+        invalidateProperties();
+        invalidateTrace();
+        invalidateCollisionBoxes();
+        invalidateRenderTiles();
+        // The actual state of a part can depend on the other parts in the container
+        parts.forEachValue(PartInfo::invalidateClientInfo);
+        ghostSlots = null;
+        occlusionMask = null;
+    }
+
+    public void invalidateOcclusion() {
+        parts.forEachValue(PartInfo::invalidateOcclusion);
+        occlusionMask = null;
+    }
+
+    public void invalidateCollisionBoxes() {
+        collisionBoxes = null;
+        collisionBounds = null;
+        customCollisionParts = null;
+    }
+
+    private void invalidateRenderTiles() {
+        fastRenderTiles = null;
+        slowRenderTiles = null;
+        invalidateRenderBounds();
+    }
+
+    public void invalidateRenderBounds() {
+        renderBounds = null;
+        maxRenderDistance = -1;
+    }
+
+    public void addCollisionBoxes(AxisAlignedBB entityBox, List<AxisAlignedBB> collidingBoxes, Entity entity, boolean unknown) {
+        // Neighbour updates only reach the server, and the boxes of a part can depend on its neighbours, so the client doesn't cache them
+        if (getWorld().isRemote) {
+            parts.forEachValue(info -> info.getPart().addCollisionBoxToList(info, entityBox, collidingBoxes, entity, unknown));
+            return;
+        }
+        if (collisionBoxes == null) {
+            List<AxisAlignedBB> boxes = new ArrayList<>();
+            List<PartInfo> custom = new ArrayList<>();
+            parts.forEachValue(info -> {
+                if (info.hasDefaultCollision()) {
+                    AxisAlignedBB box = info.getState().getCollisionBoundingBox(info.getWorld(), info.getPos());
+                    if (box != Block.NULL_AABB) {
+                        boxes.add(box.offset(getPos()));
+                    }
+                } else {
+                    custom.add(info);
+                }
+            });
+            collisionBounds = MultipartOcclusionHelper.getBounds(boxes);
+            customCollisionParts = custom.toArray(new PartInfo[custom.size()]);
+            collisionBoxes = boxes;
+        }
+        if (collisionBounds != null && collisionBounds.intersectsWith(entityBox)) {
+            for (AxisAlignedBB box : collisionBoxes) {
+                if (box.intersectsWith(entityBox)) {
+                    collidingBoxes.add(box);
+                }
+            }
+        }
+        for (PartInfo info : customCollisionParts) {
+            info.getPart().addCollisionBoxToList(info, entityBox, collidingBoxes, entity, unknown);
+        }
+    }
+
+    private void invalidateTrace() {
+        traceTick = -1;
+        traceResult = null;
+        traceStart = traceEnd = null;
+    }
+
+    public RayTraceResult collisionRayTrace(Vec3d start, Vec3d end) {
+        // Find the parts the ray can hit and where it enters their bounds, then trace them from nearest to furthest
+        if (traceIds.length < parts.size()) {
+            traceIds = new int[parts.size()];
+            traceEntries = new double[parts.size()];
+        }
+        double dX = end.xCoord - start.xCoord, dY = end.yCoord - start.yCoord, dZ = end.zCoord - start.zCoord;
+        int candidates = 0;
+        for (int id = parts.nextId(0); id != -1; id = parts.nextId(id + 1)) {
+            AxisAlignedBB bounds = parts.getById(id).getRayTraceBounds();
+            double entry = bounds == null ? 0 : getRayEntry(bounds, start, dX, dY, dZ);
+            if (entry < 0) {
+                continue;
+            }
+            int i = candidates++;
+            for (; i > 0 && traceEntries[i - 1] > entry; i--) {
+                traceIds[i] = traceIds[i - 1];
+                traceEntries[i] = traceEntries[i - 1];
+            }
+            traceIds[i] = id;
+            traceEntries[i] = entry;
+        }
+
+        double lengthSq = dX * dX + dY * dY + dZ * dZ, closest = Double.POSITIVE_INFINITY;
+        RayTraceResult closestHit = null;
+        int closestId = -1;
+        for (int i = 0; i < candidates; i++) {
+            if (closest < traceEntries[i] * traceEntries[i] * lengthSq) {
+                break;
+            }
+            PartInfo info = parts.getById(traceIds[i]);
+            RayTraceResult hit = info.getPart().collisionRayTrace(info, start, end);
+            if (hit != null) {
+                double distance = hit.hitVec.squareDistanceTo(start);
+                if (distance < closest || (distance == closest && traceIds[i] < closestId)) {
+                    closest = distance;
+                    closestHit = hit;
+                    closestId = traceIds[i];
+                }
+            }
+        }
+        if (closestHit == null) {
+            return null;
+        }
+        RayTraceResult hit = new RayTraceResult(closestHit.hitVec, closestHit.sideHit, closestHit.getBlockPos());
+        hit.hitInfo = closestHit;
+        hit.subHit = closestId;
+        return hit;
+    }
+
+    // Returns the fraction of the ray at which it enters the specified box (relative to this container), or -1 if it misses it
+    private double getRayEntry(AxisAlignedBB box, Vec3d start, double dX, double dY, double dZ) {
+        double x = start.xCoord - getPos().getX(), y = start.yCoord - getPos().getY(), z = start.zCoord - getPos().getZ();
+        double min = 0, max = 1;
+        if (dX != 0) {
+            double t1 = (box.minX - x) / dX, t2 = (box.maxX - x) / dX;
+            min = Math.max(min, Math.min(t1, t2));
+            max = Math.min(max, Math.max(t1, t2));
+        } else if (x < box.minX || x > box.maxX) {
+            return -1;
+        }
+        if (dY != 0) {
+            double t1 = (box.minY - y) / dY, t2 = (box.maxY - y) / dY;
+            min = Math.max(min, Math.min(t1, t2));
+            max = Math.min(max, Math.max(t1, t2));
+        } else if (y < box.minY || y > box.maxY) {
+            return -1;
+        }
+        if (dZ != 0) {
+            double t1 = (box.minZ - z) / dZ, t2 = (box.maxZ - z) / dZ;
+            min = Math.max(min, Math.min(t1, t2));
+            max = Math.min(max, Math.max(t1, t2));
+        } else if (z < box.minZ || z > box.maxZ) {
+            return -1;
+        }
+        return min <= max ? min : -1;
+    }
+
+    public RayTraceResult rayTrace(EntityPlayer player) {
+        Pair<Vec3d, Vec3d> vectors = RayTraceHelper.getRayTraceVectors(player);
+        long tick = getWorld().getTotalWorldTime();
+        if (player.getEntityId() != tracePlayer || tick != traceTick || !vectors.getLeft().equals(traceStart)
+                || !vectors.getRight().equals(traceEnd)) {
+            traceResult = collisionRayTrace(vectors.getLeft(), vectors.getRight());
+            tracePlayer = player.getEntityId();
+            traceTick = tick;
+            traceStart = vectors.getLeft();
+            traceEnd = vectors.getRight();
+        }
+        return traceResult;
+    }
+
+    private void invalidateProperties() {
+        properties.set(new PropertyData(properties.get().generation + 1, -1, -1, 0, 0, 0));
+        version++;
+    }
+
+    // Parts whose light depends on their tile can have it recomputed by calling checkLight through their world
+    public void invalidateLight() {
+        PropertyData data;
+        do {
+            data = properties.get();
+        } while (!properties.compareAndSet(data,
+                new PropertyData(data.generation + 1, -1, -1, data.solidSides, data.spawnTypes, data.coveredFaces)));
+    }
+
+    // Called when a part's opacity changes without the part itself changing, like when the graphics settings change
+    public void invalidateCoveredFaces() {
+        PropertyData data;
+        do {
+            data = properties.get();
+        } while (!properties.compareAndSet(data,
+                new PropertyData(data.generation + 1, data.lightValue, data.lightOpacity, data.solidSides, data.spawnTypes, 0)));
+    }
+
+    public int getLightValue(IBlockAccess world, BlockPos pos) {
+        PropertyData data = properties.get();
+        if (data.lightValue >= 0) {
+            return data.lightValue;
+        }
+        boolean[] computing = computingLight.get();
+        int value = 0;
+        if (computing[LIGHT_VALUE]) {
+            for (PartInfo info : getPartsSafe()) {
+                value = Math.max(value, info.getPart().getLightValue(info.getState()));
+            }
+            return value;
+        }
+        computing[LIGHT_VALUE] = true;
+        try {
+            for (PartInfo info : getPartsSafe()) {
+                value = Math.max(value, info.getPart().getLightValue(info.wrapAsNeeded(world), pos, info));
+            }
+        } finally {
+            computing[LIGHT_VALUE] = false;
+        }
+        publishProperties(data, new PropertyData(data.generation, value, -1, 0, 0, 0));
+        return value;
+    }
+
+    public int getLightOpacity(IBlockAccess world, BlockPos pos) {
+        PropertyData data = properties.get();
+        if (data.lightOpacity >= 0) {
+            return data.lightOpacity;
+        }
+        boolean[] computing = computingLight.get();
+        int value = 0;
+        if (computing[LIGHT_OPACITY]) {
+            for (PartInfo info : getPartsSafe()) {
+                value += info.getPart().getLightOpacity(info.getState());
+            }
+            return Math.min(value, 255);
+        }
+        computing[LIGHT_OPACITY] = true;
+        try {
+            for (PartInfo info : getPartsSafe()) {
+                value += info.getPart().getLightOpacity(info.wrapAsNeeded(world), pos, info);
+            }
+        } finally {
+            computing[LIGHT_OPACITY] = false;
+        }
+        value = Math.min(value, 255);
+        publishProperties(data, new PropertyData(data.generation, -1, value, 0, 0, 0));
+        return value;
+    }
+
+    // Merges the computed values into the ones that were read, or into the ones another thread published since, unless the parts changed
+    private void publishProperties(PropertyData expected, PropertyData computed) {
+        PropertyData data = computed.merge(expected);
+        while (!properties.compareAndSet(expected, data)) {
+            expected = properties.get();
+            if (expected.generation != data.generation) {
+                return;
+            }
+            data = computed.merge(expected);
+        }
+    }
+
+    // Returns the same list for as long as the client info of the parts doesn't change, so the quads of the container can be cached
+    // across chunk rebuilds. A new list is only built once one of the parts returns different info.
+    public List<PartInfo.ClientInfo> getClientInfo(IBlockAccess world, BlockPos pos) {
+        PartInfo[] parts = getPartsSafe();
+        List<PartInfo.ClientInfo> previous = clientInfo;
+        PartInfo.ClientInfo[] info = previous.size() != parts.length ? new PartInfo.ClientInfo[parts.length] : null;
+        for (int i = 0; i < parts.length; i++) {
+            PartInfo.ClientInfo partInfo = parts[i].getInfo(world, pos);
+            if (info == null && previous.get(i) != partInfo) {
+                info = new PartInfo.ClientInfo[parts.length];
+                for (int j = 0; j < i; j++) {
+                    info[j] = previous.get(j);
+                }
+            }
+            if (info != null) {
+                info[i] = partInfo;
+            }
+        }
+        if (info == null) {
+            return previous;
+        }
+        List<PartInfo.ClientInfo> list = Collections.unmodifiableList(Arrays.asList(info));
+        clientInfo = list;
+        return list;
+    }
+
+    // Copies the parts so they can be iterated from render threads while the main thread adds or removes them
+    private PartInfo[] getPartsSafe() {
+        List<PartInfo> list = new ArrayList<>(parts.size());
+        for (int id = parts.nextId(0); id != -1; id = parts.nextId(id + 1)) {
+            PartInfo info = parts.getById(id);
+            if (info != null) {
+                list.add(info);
+            }
+        }
+        return list.toArray(new PartInfo[list.size()]);
+    }
+
+    public boolean isSideSolid(IBlockAccess world, BlockPos pos, EnumFacing side) {
+        PropertyData data = properties.get();
+        int bit = 1 << side.ordinal();
+        if ((data.solidSides & (bit << 8)) != 0) {
+            return (data.solidSides & bit) != 0;
+        }
+        boolean solid = false;
+        for (PartInfo info : getPartsSafe()) {
+            if (info.getPart().isSideSolid(info.wrapAsNeeded(world), pos, info, side)) {
+                solid = true;
+                break;
+            }
+        }
+        publishProperties(data, new PropertyData(data.generation, -1, -1, (bit << 8) | (solid ? bit : 0), 0, 0));
+        return solid;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // Whether the specified face of this container is fully covered by opaque parts, hiding the faces of the neighbour behind it
+    public boolean isFaceCovered(EnumFacing face) {
+        PropertyData data = properties.get();
+        int faces = data.coveredFaces;
+        if (faces == 0) {
+            faces = 1 << 12; // Marks the faces as computed
+            for (PartInfo info : getPartsSafe()) {
+                for (AxisAlignedBB box : info.getOpaqueBoxes()) {
+                    for (EnumFacing f : EnumFacing.VALUES) {
+                        if (isFaceCovered(box, f)) {
+                            faces |= 1 << f.ordinal();
+                        }
+                    }
+                }
+            }
+            publishProperties(data, new PropertyData(data.generation, -1, -1, 0, 0, faces));
+        }
+        return (faces & (1 << face.ordinal())) != 0;
+    }
+
+    private static boolean isFaceCovered(AxisAlignedBB box, EnumFacing face) {
+        switch (face.getAxis()) {
+        case X:
+            return (face == EnumFacing.WEST ? box.minX <= 0 : box.maxX >= 1) && box.minY <= 0 && box.maxY >= 1 && box.minZ <= 0
+                    && box.maxZ >= 1;
+        case Y:
+            return (face == EnumFacing.DOWN ? box.minY <= 0 : box.maxY >= 1) && box.minX <= 0 && box.maxX >= 1 && box.minZ <= 0
+                    && box.maxZ >= 1;
+        default:
+            return (face == EnumFacing.NORTH ? box.minZ <= 0 : box.maxZ >= 1) && box.minX <= 0 && box.maxX >= 1 && box.minY <= 0
+                    && box.maxY >= 1;
+        }
+    }
+
+    public boolean canCreatureSpawn(IBlockAccess world, BlockPos pos, SpawnPlacementType type) {
+        PropertyData data = properties.get();
+        int bit = 1 << type.ordinal();
+        if ((data.spawnTypes & (bit << 8)) != 0) {
+            return (data.spawnTypes & bit) != 0;
+        }
+        boolean canSpawn = false;
+        for (PartInfo info : getPartsSafe()) {
+            if (info.getPart().canCreatureSpawn(info.wrapAsNeeded(world), pos, info, type)) {
+                canSpawn = true;
+                break;
+            }
+        }
+        publishProperties(data, new PropertyData(data.generation, -1, -1, 0, (bit << 8) | (canSpawn ? bit : 0), 0));
+        return canSpawn;
+    }
+
+    @Override
+    public OcclusionMask getOcclusionMask() {
+        if (occlusionMask == null) {
+            occlusionMask = IMultipartContainer.super.getOcclusionMask();
+        }
+        return occlusionMask;
     }
 
     protected void copyTo(TileMultipartContainer container) {
@@ -223,10 +720,12 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
             container.missingParts = missingParts;
         }
         container.parts.values().forEach(i -> i.setContainer(container));
+        container.scheduledTicks = scheduledTicks;
+        container.worldTickDue = worldTickDue;
     }
 
     @Override
-    public Map<IPartSlot, PartInfo> getParts() {
+    public SlotMap<PartInfo> getParts() {
         return parts;
     }
 
@@ -294,6 +793,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         ObjectIntIdentityMap<IBlockState> stateMap = GameData.getBlockStateIDMap();
         NBTTagCompound parts = tag.getCompoundTag("parts");
         this.parts.clear();
+        invalidateCaches();
         for (String sID : parts.getKeySet()) {
             IPartSlot slot = MCMultiPart.slotRegistry.getObjectById(Integer.parseInt(sID));
             if (slot != null) {
@@ -371,14 +871,30 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
 
     @Override
     public double getMaxRenderDistanceSquared() {
-        return parts.values().stream().map(IPartInfo::getTile).filter(t -> t != null)
-                .mapToDouble(IMultipartTile::getMaxRenderDistanceSquared).max().orElse(super.getMaxRenderDistanceSquared());
+        if (maxRenderDistance < 0) {
+            double distance = -1;
+            for (PartInfo info : parts.values()) {
+                if (info.getTile() != null) {
+                    distance = Math.max(distance, info.getTile().getMaxRenderDistanceSquared());
+                }
+            }
+            maxRenderDistance = distance >= 0 ? distance : super.getMaxRenderDistanceSquared();
+        }
+        return maxRenderDistance;
     }
 
     @Override
     public AxisAlignedBB getRenderBoundingBox() {
-        return parts.values().stream().map(IPartInfo::getTile).filter(t -> t != null)//
-                .reduce(super.getRenderBoundingBox(), (a, b) -> a.union(b.getRenderBoundingBox()), (a, b) -> b);
+        if (renderBounds == null) {
+            AxisAlignedBB bounds = super.getRenderBoundingBox();
+            for (PartInfo info : parts.values()) {
+                if (info.getTile() != null) {
+                    bounds = bounds.union(info.getTile().getRenderBoundingBox());
+                }
+            }
+            renderBounds = bounds;
+        }
+        return renderBounds;
     }
 
     @Override
@@ -396,26 +912,55 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
 
     @SideOnly(Side.CLIENT)
     private boolean hasFastRendererC() {
-        for (IPartInfo info : parts.values()) {
-            TileEntity te = info.getTile() != null ? info.getTile().getTileEntity() : null;
-            if (te != null && TileEntityRendererDispatcher.instance.getSpecialRenderer(te) != null && !te.hasFastRenderer()) {
-                return false;
-            }
+        return getSlowRenderTiles().length == 0;
+    }
+
+    @SideOnly(Side.CLIENT)
+    public IMultipartTile[] getFastRenderTiles() {
+        updateRenderTiles();
+        return fastRenderTiles;
+    }
+
+    @SideOnly(Side.CLIENT)
+    public IMultipartTile[] getSlowRenderTiles() {
+        updateRenderTiles();
+        return slowRenderTiles;
+    }
+
+    @SideOnly(Side.CLIENT)
+    private void updateRenderTiles() {
+        if (fastRenderTiles != null) {
+            return;
         }
-        return true;
+        List<IMultipartTile> fast = new ArrayList<>(), slow = new ArrayList<>();
+        parts.forEachValue(info -> {
+            IMultipartTile tile = info.getTile();
+            if (tile != null && TileEntityRendererDispatcher.instance.getSpecialRenderer(tile.getTileEntity()) != null) {
+                (tile.hasFastRenderer() ? fast : slow).add(tile);
+            }
+        });
+        fastRenderTiles = fast.isEmpty() ? NO_TILES : fast.toArray(new IMultipartTile[fast.size()]);
+        slowRenderTiles = slow.isEmpty() ? NO_TILES : slow.toArray(new IMultipartTile[slow.size()]);
     }
 
     @Override
     public boolean shouldRenderInPass(int pass) {
         if (FMLCommonHandler.instance().getEffectiveSide().isClient()) {
-            shouldRenderInPassC(pass);
+            return shouldRenderInPassC(pass);
         }
         return true;
     }
 
+    // Containers whose parts are all baked into the chunk are skipped before frustum checks and TESR dispatch, unless the player is
+    // looking at them, since their parts' breaking animation is also drawn by the TESR
     @SideOnly(Side.CLIENT)
-    public void shouldRenderInPassC(int pass) {
+    public boolean shouldRenderInPassC(int pass) {
         TESRMultipartContainer.pass = pass;
+        if (getFastRenderTiles().length > 0 || getSlowRenderTiles().length > 0) {
+            return true;
+        }
+        RayTraceResult hit = Minecraft.getMinecraft().objectMouseOver;
+        return hit != null && hit.typeOfHit == RayTraceResult.Type.BLOCK && getPos().equals(hit.getBlockPos());
     }
 
     @Override
@@ -423,8 +968,18 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         if (capability == MCMPCapabilities.MULTIPART_CONTAINER) {
             return true;
         }
-        if (SlotUtil.viewContainer(this, i -> i.getTile() != null && i.getTile().hasCapability(capability, facing),
-                l -> l.stream().anyMatch(a -> a), false, true, facing)) {
+        CachedCapability cache = getCachedCapability(capability);
+        int index = facing != null ? facing.ordinal() : EnumFacing.VALUES.length;
+        int present = cache.present.get(index);
+        if (present == CachedCapability.UNKNOWN) {
+            present = SlotRegistry.INSTANCE.viewContainerBoolean(this,
+                    i -> i.getTile() != null && i.getTile().hasCapability(capability, facing), (a, b) -> a || b, false, facing)
+                            ? CachedCapability.PRESENT : CachedCapability.ABSENT;
+            if (cache.generation == capabilityGeneration) {
+                cache.present.set(index, present);
+            }
+        }
+        if (present == CachedCapability.PRESENT) {
             return true;
         }
         return super.hasCapability(capability, facing);
@@ -436,16 +991,54 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         if (capability == MCMPCapabilities.MULTIPART_CONTAINER) {
             return (T) this;
         }
-        T val = SlotUtil.viewContainer(
-                this, i -> i.getTile() != null && i.getTile().hasCapability(capability, facing)
-                        ? i.getTile().getCapability(capability, facing) : null,
-                l -> CapabilityJoiner.join(capability, l), null, true, facing);
-        if (val != null) {
-            return val;
+        CachedCapability cache = getCachedCapability(capability);
+        int index = facing != null ? facing.ordinal() : EnumFacing.VALUES.length;
+        Object value = cache.values.get(index);
+        if (value == null) {
+            T val = SlotRegistry.INSTANCE.viewContainer(
+                    this, i -> i.getTile() != null && i.getTile().hasCapability(capability, facing)
+                            ? i.getTile().getCapability(capability, facing) : null,
+                    l -> CapabilityJoiner.join(capability, l), null, true, facing);
+            value = val != null ? val : CachedCapability.NO_VALUE;
+            if (cache.generation == capabilityGeneration) {
+                cache.values.set(index, value);
+            }
+        }
+        if (value != CachedCapability.NO_VALUE) {
+            return (T) value;
         }
         return super.getCapability(capability, facing);
     }
 
+    private CachedCapability getCachedCapability(Capability<?> capability) {
+        int generation = capabilityGeneration;
+        CachedCapability cache = capabilityCache.get(capability);
+        if (cache == null || cache.generation != generation) {
+            capabilityCache.put(capability, cache = new CachedCapability(generation));
+        }
+        return cache;
+    }
+
+    // Must be called whenever a part or its tile changes in a way that may affect the capabilities it exposes
+    public void invalidateCapabilities() {
+        capabilityGeneration++;
+        capabilityCache.clear();
+    }
+
+    @Override
+    public void notifyChange(IPartInfo part) {
+        if (part instanceof PartInfo) {
+            ((PartInfo) part).invalidateCaches();
+        }
+        invalidateCaches();
+        IMultipartContainer.super.notifyChange(part);
+    }
+
+    @Override
+    public void notifyRenderBoundsChange(IPartInfo part) {
+        invalidateRenderBounds();
+    }
+
     protected void forEachTile(Consumer<IMultipartTile> consumer) {
         for (PartInfo info : getParts().values()) {
             IMultipartTile tile = info.getTile();
@@ -455,10 +1048,52 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         }
     }
 
+    private static final class CachedCapability {
+
+        private static final Object NO_VALUE = new Object();
+        private static final int UNKNOWN = 0, ABSENT = 1, PRESENT = 2;
+
+        private final int generation;
+        // Indexed by facing, with the last element being the null facing
+        private final AtomicIntegerArray present = new AtomicIntegerArray(EnumFacing.VALUES.length + 1);
+        private final AtomicReferenceArray<Object> values = new AtomicReferenceArray<>(EnumFacing.VALUES.length + 1);
+
+        private CachedCapability(int generation) {
+            this.generation = generation;
+        }
+
+    }
+
+    // Light values are -1 when unknown, and per-face and per-type flags pack the computed values in the low 8 bits and which of them are
+    // known in the high 8 bits. Covered faces are computed all at once, with bit 12 marking them as known.
+    private static final class PropertyData {
+
+        private final int generation, lightValue, lightOpacity, solidSides, spawnTypes, coveredFaces;
+
+        private PropertyData(int generation, int lightValue, int lightOpacity, int solidSides, int spawnTypes, int coveredFaces) {
+            this.generation = generation;
+            this.lightValue = lightValue;
+            this.lightOpacity = lightOpacity;
+            this.solidSides = solidSides;
+            this.spawnTypes = spawnTypes;
+            this.coveredFaces = coveredFaces;
+        }
+
+        private PropertyData merge(PropertyData other) {
+            return new PropertyData(generation, lightValue >= 0 ? lightValue : other.lightValue,
+                    lightOpacity >= 0 ? lightOpacity : other.lightOpacity, solidSides | other.solidSides, spawnTypes | other.spawnTypes,
+                    coveredFaces != 0 ? coveredFaces : other.coveredFaces);
+        }
+
+    }
+
     public static class Ticking extends TileMultipartContainer implements ITickable {
 
-        private static final Object obj = new Object();
-        private final Map<ITickable, Object> tickingParts = new WeakHashMap<>();
+        // How long a container needs to go without ticking parts before it's replaced by a non-ticking one
+        private static final int IDLE_TICKS_BEFORE_DEMOTION = 200;
+
+        private final SlotMap<ITickable> tickingParts = new SlotMap<>();
+        private int idleTicks = 0;
 
         private Ticking(World world, BlockPos pos) {
             super(world, pos);
@@ -470,14 +1105,21 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         @Override
         public void update() {
             if (tickingParts.isEmpty()) {
-                getWorld().setBlockState(getPos(),
-                        MCMultiPart.multipart.getDefaultState().withProperty(BlockMultipartContainer.PROPERTY_TICKING, false));
-                TileMultipartContainer container = (TileMultipartContainer) MultipartHelper.getContainer(getWorld(), getPos()).get();
-                copyTo(container);
-                getWorld().checkLight(getPos());
+                // Stay in the ticking list for a while so parts that toggle often don't keep swapping the tile entity
+                if (++idleTicks >= IDLE_TICKS_BEFORE_DEMOTION) {
+                    getWorld().setBlockState(getPos(),
+                            MCMultiPart.multipart.getDefaultState().withProperty(BlockMultipartContainer.PROPERTY_TICKING, false), 2);
+                    TileMultipartContainer container = (TileMultipartContainer) MultipartHelper.getContainer(getWorld(), getPos()).get();
+                    copyTo(container);
+                    getWorld().checkLight(getPos());
+                }
                 return;
             }
-            tickingParts.keySet().forEach(ITickable::update);
+            idleTicks = 0;
+            // Walk the occupied slots by ID so that parts removed while ticking are skipped without needing a copy of the list
+            for (int id = tickingParts.nextId(0); id != -1; id = tickingParts.nextId(id + 1)) {
+                tickingParts.getById(id).update();
+            }
         }
 
         @Override
@@ -485,27 +1127,16 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
             super.add(slot, partInfo);
             IMultipartTile te = partInfo.getTile();
             if (te != null && te.isTickable()) {
-                tickingParts.put(te.getTickable(), obj);
+                tickingParts.put(slot, te.getTickable());
             }
         }
 
         @Override
         protected void remove(IPartSlot slot) {
-            IMultipartTile te = getPartTile(slot).orElse(null);
-            if (te != null && te.isTickable()) {
-                tickingParts.remove(te);
-            }
+            tickingParts.remove(slot);
             super.remove(slot);
         }
 
-        @Override
-        protected void copyTo(TileMultipartContainer container) {
-            super.copyTo(container);
-            if (container instanceof TileMultipartContainer.Ticking) {
-                ((Ticking) container).tickingParts.putAll(tickingParts);
-            }
-        }
-
     }
 
     public static IMultipartContainer createTile(World world, BlockPos pos) {
@@ -521,7 +1152,6 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
                 info.getTile().invalidate();
             }
             tmc.addPartDo(info.getSlot(), info.getPart(), info.getState(), info.getTile(), false);
-            tmc.parts.get(info.getSlot()).copyMetaFrom(info);
         }
         return tmc;
     }
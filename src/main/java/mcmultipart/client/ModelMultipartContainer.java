@@ -1,10 +1,12 @@
 package mcmultipart.client;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-import org.apache.commons.lang3.tuple.Pair;
+import com.google.common.cache.CacheBuilder;
 
 import mcmultipart.block.BlockMultipartContainer;
 import mcmultipart.multipart.PartInfo;
@@ -16,28 +18,115 @@ import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.client.renderer.block.model.ItemCameraTransforms;
 import net.minecraft.client.renderer.block.model.ItemOverrideList;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.renderer.vertex.VertexFormatElement;
 import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraftforge.client.MinecraftForgeClient;
 import net.minecraftforge.common.property.IExtendedBlockState;
 
 public class ModelMultipartContainer implements IBakedModel {
 
+    private static final double EPSILON = 1.0E-4;
+
+    // Quads are cached per list of client info, which containers keep the same until one of their parts needs to render differently.
+    // A new model is created every time models are baked, so reloading resources drops the cache along with the old model.
+    private final Map<List<PartInfo.ClientInfo>, QuadCache> quadCache = CacheBuilder.newBuilder().weakKeys()
+            .<List<PartInfo.ClientInfo>, QuadCache> build().asMap();
+
     @Override
     public List<BakedQuad> getQuads(IBlockState state, EnumFacing side, long rand) {
         List<PartInfo.ClientInfo> info = ((IExtendedBlockState) state).getValue(BlockMultipartContainer.PROPERTY_INFO);
+        BlockRenderLayer layer = MinecraftForgeClient.getRenderLayer();
+        if (info == null || info.isEmpty() || layer == null) {
+            return Collections.emptyList();
+        }
+        QuadCache cache = quadCache.computeIfAbsent(info, i -> new QuadCache(rand));
+        if (cache.rand != rand) {
+            return getQuads(info, layer, side, rand);
+        }
+        int index = layer.ordinal() * (EnumFacing.VALUES.length + 1) + (side != null ? side.ordinal() : EnumFacing.VALUES.length);
+        List<BakedQuad> quads = cache.quads.get(index);
+        if (quads == null) {
+            quads = getQuads(info, layer, side, rand);
+            cache.quads.set(index, quads);
+        }
+        return quads;
+    }
+
+    private List<BakedQuad> getQuads(List<PartInfo.ClientInfo> info, BlockRenderLayer layer, EnumFacing side, long rand) {
         BlockRendererDispatcher brd = Minecraft.getMinecraft().getBlockRendererDispatcher();
-        if (info != null) {
-            BlockRenderLayer layer = MinecraftForgeClient.getRenderLayer();
-            return info//
-                    .stream()//
-                    .filter(i -> i.canRenderInLayer(layer))//
-                    .map(i -> Pair.of(i, brd.getModelForState(i.getActualState())))//
-                    .map(p -> p.getValue().getQuads(p.getKey().getExtendedState(), side, rand))//
-                    .flatMap(List::stream)//
-                    .collect(Collectors.toList());
+        List<BakedQuad> quads = new ArrayList<>(), microblockQuads = new ArrayList<>();
+        for (PartInfo.ClientInfo i : info) {
+            if (i.canRenderInLayer(layer)) {
+                for (BakedQuad quad : brd.getModelForState(i.getActualState()).getQuads(i.getExtendedState(), side, rand)) {
+                    if (!isHidden(quad, i, info)) {
+                        (i.isMicroblock() ? microblockQuads : quads).add(quad);
+                    }
+                }
+            }
         }
-        return Collections.emptyList();
+        // Adjacent microblocks of the same material produce coplanar faces that can be drawn as one
+        quads.addAll(QuadMerger.merge(microblockQuads));
+        return quads.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(quads);
+    }
+
+    // Checks if an axis-aligned quad lies flat against an opaque box of another part in the container, facing into it
+    private static boolean isHidden(BakedQuad quad, PartInfo.ClientInfo owner, List<PartInfo.ClientInfo> info) {
+        EnumFacing face = quad.getFace();
+        int offset = getPositionOffset(quad.getFormat());
+        if (face == null || offset < 0) {
+            return false;
+        }
+        int[] data = quad.getVertexData();
+        int stride = quad.getFormat().getIntegerSize();
+        float[] min = { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE }, max = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+        for (int vertex = 0; vertex < 4; vertex++) {
+            for (int axis = 0; axis < 3; axis++) {
+                float value = Float.intBitsToFloat(data[vertex * stride + offset + axis]);
+                min[axis] = Math.min(min[axis], value);
+                max[axis] = Math.max(max[axis], value);
+            }
+        }
+        int normal = face.getAxis().ordinal(), u = (normal + 1) % 3, v = (normal + 2) % 3;
+        if (max[normal] - min[normal] > EPSILON) {
+            return false;
+        }
+        double plane = min[normal];
+        boolean positive = face.getAxisDirection() == EnumFacing.AxisDirection.POSITIVE;
+        for (PartInfo.ClientInfo i : info) {
+            if (i == owner) {
+                continue;
+            }
+            for (AxisAlignedBB box : i.getOpaqueBoxes()) {
+                double boxMin = getMin(box, normal), boxMax = getMax(box, normal);
+                boolean touching = positive ? Math.abs(boxMin - plane) < EPSILON && boxMax > plane
+                        : Math.abs(boxMax - plane) < EPSILON && boxMin < plane;
+                if (touching && getMin(box, u) <= min[u] + EPSILON && getMax(box, u) >= max[u] - EPSILON
+                        && getMin(box, v) <= min[v] + EPSILON && getMax(box, v) >= max[v] - EPSILON) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int getPositionOffset(VertexFormat format) {
+        for (int i = 0; i < format.getElementCount(); i++) {
+            if (format.getElement(i).getUsage() == VertexFormatElement.EnumUsage.POSITION) {
+                return format.getOffset(i) / 4;
+            }
+        }
+        return -1;
+    }
+
+    private static double getMin(AxisAlignedBB box, int axis) {
+        return axis == 0 ? box.minX : axis == 1 ? box.minY : box.minZ;
+    }
+
+    private static double getMax(AxisAlignedBB box, int axis) {
+        return axis == 0 ? box.maxX : axis == 1 ? box.maxY : box.maxZ;
     }
 
     @Override
@@ -70,4 +159,16 @@ public class ModelMultipartContainer implements IBakedModel {
         return ItemOverrideList.NONE;
     }
 
+    private static final class QuadCache {
+
+        private final long rand;
+        private final AtomicReferenceArray<List<BakedQuad>> quads = new AtomicReferenceArray<>(
+                BlockRenderLayer.values().length * (EnumFacing.VALUES.length + 1));
+
+        private QuadCache(long rand) {
+            this.rand = rand;
+        }
+
+    }
+
 }
@@ -0,0 +1,221 @@
+package mcmultipart.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.renderer.vertex.VertexFormatElement;
+import net.minecraft.util.EnumFacing;
+
+// Merges coplanar quads that share a full edge and map the same texture continuously, like the faces of adjacent microblocks of the
+// same material. Quads that aren't axis-aligned rectangles with a linear texture mapping and uniform colour, normal and lighting are
+// left untouched. Textures can't repeat within the atlas, so quads can only be merged as long as the result still fits the sprite.
+public final class QuadMerger {
+
+    private static final float EPSILON = 1.0E-4F, UV_EPSILON = 1.0E-6F;
+
+    public static List<BakedQuad> merge(List<BakedQuad> quads) {
+        if (quads.size() < 2) {
+            return quads;
+        }
+        List<BakedQuad> merged = new ArrayList<>();
+        List<Rect> rects = new ArrayList<>();
+        for (BakedQuad quad : quads) {
+            Rect rect = Rect.of(quad);
+            if (rect != null) {
+                rects.add(rect);
+            } else {
+                merged.add(quad);
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < rects.size() && !changed; i++) {
+                for (int j = i + 1; j < rects.size(); j++) {
+                    Rect rect = rects.get(i).merge(rects.get(j));
+                    if (rect != null) {
+                        rects.set(i, rect);
+                        rects.remove(j);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        for (Rect rect : rects) {
+            merged.add(rect.toQuad());
+        }
+        return merged;
+    }
+
+    private static final class Rect {
+
+        private final BakedQuad quad;
+        private final int stride, posOffset, uvOffset;
+        private final int normal, u, v;
+        private final float plane;
+        // The bounds of the template quad and of this rectangle, in the two axes of the plane
+        private final float[] quadMin, quadMax, min, max;
+        // Texture coordinates as a linear function of the position in the plane: tex = a * u + b * v + c
+        private final float[] texU, texV;
+
+        private Rect(BakedQuad quad, int stride, int posOffset, int uvOffset, int normal, float plane, float[] quadMin, float[] quadMax,
+                float[] min, float[] max, float[] texU, float[] texV) {
+            this.quad = quad;
+            this.stride = stride;
+            this.posOffset = posOffset;
+            this.uvOffset = uvOffset;
+            this.normal = normal;
+            this.u = (normal + 1) % 3;
+            this.v = (normal + 2) % 3;
+            this.plane = plane;
+            this.quadMin = quadMin;
+            this.quadMax = quadMax;
+            this.min = min;
+            this.max = max;
+            this.texU = texU;
+            this.texV = texV;
+        }
+
+        private static Rect of(BakedQuad quad) {
+            EnumFacing face = quad.getFace();
+            VertexFormat format = quad.getFormat();
+            int posOffset = getOffset(format, VertexFormatElement.EnumUsage.POSITION), uvOffset = getOffset(format,
+                    VertexFormatElement.EnumUsage.UV);
+            if (face == null || posOffset < 0 || uvOffset < 0) {
+                return null;
+            }
+            int[] data = quad.getVertexData();
+            int stride = format.getIntegerSize();
+            int normal = face.getAxis().ordinal(), u = (normal + 1) % 3, v = (normal + 2) % 3;
+
+            float[] min = { Float.MAX_VALUE, Float.MAX_VALUE }, max = { -Float.MAX_VALUE, -Float.MAX_VALUE };
+            float plane = getPos(data, stride, posOffset, 0, normal);
+            for (int vertex = 0; vertex < 4; vertex++) {
+                if (Math.abs(getPos(data, stride, posOffset, vertex, normal) - plane) > EPSILON) {
+                    return null;
+                }
+                min[0] = Math.min(min[0], getPos(data, stride, posOffset, vertex, u));
+                max[0] = Math.max(max[0], getPos(data, stride, posOffset, vertex, u));
+                min[1] = Math.min(min[1], getPos(data, stride, posOffset, vertex, v));
+                max[1] = Math.max(max[1], getPos(data, stride, posOffset, vertex, v));
+            }
+            if (max[0] - min[0] < EPSILON || max[1] - min[1] < EPSILON) {
+                return null;
+            }
+
+            // Every vertex must be on a different corner, and everything but the position and texture must be the same for all of them
+            int[] corners = new int[4];
+            int seen = 0;
+            for (int vertex = 0; vertex < 4; vertex++) {
+                int corner = getCorner(getPos(data, stride, posOffset, vertex, u), min[0], max[0])
+                        | getCorner(getPos(data, stride, posOffset, vertex, v), min[1], max[1]) << 1;
+                if (corner < 0 || (seen & (1 << corner)) != 0) {
+                    return null;
+                }
+                seen |= 1 << corner;
+                corners[corner] = vertex;
+                for (int i = 0; i < stride; i++) {
+                    if (!isPosOrUV(i, posOffset, uvOffset) && data[vertex * stride + i] != data[i]) {
+                        return null;
+                    }
+                }
+            }
+
+            float[] texU = getLinear(data, stride, uvOffset, corners, min, max);
+            float[] texV = getLinear(data, stride, uvOffset + 1, corners, min, max);
+            if (texU == null || texV == null) {
+                return null;
+            }
+            return new Rect(quad, stride, posOffset, uvOffset, normal, plane, min, max, min.clone(), max.clone(), texU, texV);
+        }
+
+        private Rect merge(Rect other) {
+            if (quad.getFace() != other.quad.getFace() || quad.getSprite() != other.quad.getSprite()
+                    || quad.getTintIndex() != other.quad.getTintIndex() || quad.getFormat() != other.quad.getFormat()
+                    || quad.shouldApplyDiffuseLighting() != other.quad.shouldApplyDiffuseLighting()
+                    || Math.abs(plane - other.plane) > EPSILON) {
+                return null;
+            }
+            for (int i = 0; i < 3; i++) {
+                if (Math.abs(texU[i] - other.texU[i]) > UV_EPSILON || Math.abs(texV[i] - other.texV[i]) > UV_EPSILON) {
+                    return null;
+                }
+            }
+            int[] data = quad.getVertexData(), otherData = other.quad.getVertexData();
+            for (int i = 0; i < stride; i++) {
+                if (!isPosOrUV(i, posOffset, uvOffset) && data[i] != otherData[i]) {
+                    return null;
+                }
+            }
+            for (int axis = 0; axis < 2; axis++) {
+                int side = 1 - axis;
+                if (Math.abs(min[side] - other.min[side]) < EPSILON && Math.abs(max[side] - other.max[side]) < EPSILON
+                        && (Math.abs(max[axis] - other.min[axis]) < EPSILON || Math.abs(other.max[axis] - min[axis]) < EPSILON)) {
+                    float[] newMin = min.clone(), newMax = max.clone();
+                    newMin[axis] = Math.min(min[axis], other.min[axis]);
+                    newMax[axis] = Math.max(max[axis], other.max[axis]);
+                    return new Rect(quad, stride, posOffset, uvOffset, normal, plane, quadMin, quadMax, newMin, newMax, texU, texV);
+                }
+            }
+            return null;
+        }
+
+        private BakedQuad toQuad() {
+            if (min[0] == quadMin[0] && min[1] == quadMin[1] && max[0] == quadMax[0] && max[1] == quadMax[1]) {
+                return quad;
+            }
+            int[] data = quad.getVertexData().clone();
+            for (int vertex = 0; vertex < 4; vertex++) {
+                int index = vertex * stride;
+                float posU = getCorner(getPos(data, stride, posOffset, vertex, u), quadMin[0], quadMax[0]) == 0 ? min[0] : max[0];
+                float posV = getCorner(getPos(data, stride, posOffset, vertex, v), quadMin[1], quadMax[1]) == 0 ? min[1] : max[1];
+                data[index + posOffset + u] = Float.floatToRawIntBits(posU);
+                data[index + posOffset + v] = Float.floatToRawIntBits(posV);
+                data[index + uvOffset] = Float.floatToRawIntBits(texU[0] * posU + texU[1] * posV + texU[2]);
+                data[index + uvOffset + 1] = Float.floatToRawIntBits(texV[0] * posU + texV[1] * posV + texV[2]);
+            }
+            return new BakedQuad(data, quad.getTintIndex(), quad.getFace(), quad.getSprite(), quad.shouldApplyDiffuseLighting(),
+                    quad.getFormat());
+        }
+
+        private static float[] getLinear(int[] data, int stride, int offset, int[] corners, float[] min, float[] max) {
+            float t00 = Float.intBitsToFloat(data[corners[0] * stride + offset]);
+            float t10 = Float.intBitsToFloat(data[corners[1] * stride + offset]);
+            float t01 = Float.intBitsToFloat(data[corners[2] * stride + offset]);
+            float t11 = Float.intBitsToFloat(data[corners[3] * stride + offset]);
+            float a = (t10 - t00) / (max[0] - min[0]), b = (t01 - t00) / (max[1] - min[1]);
+            float c = t00 - a * min[0] - b * min[1];
+            if (Math.abs(a * max[0] + b * max[1] + c - t11) > UV_EPSILON) {
+                return null;
+            }
+            return new float[] { a, b, c };
+        }
+
+        private static int getCorner(float value, float min, float max) {
+            return Math.abs(value - min) < EPSILON ? 0 : Math.abs(value - max) < EPSILON ? 1 : -4;
+        }
+
+        private static float getPos(int[] data, int stride, int offset, int vertex, int axis) {
+            return Float.intBitsToFloat(data[vertex * stride + offset + axis]);
+        }
+
+        private static boolean isPosOrUV(int i, int posOffset, int uvOffset) {
+            return (i >= posOffset && i < posOffset + 3) || (i >= uvOffset && i < uvOffset + 2);
+        }
+
+        private static int getOffset(VertexFormat format, VertexFormatElement.EnumUsage usage) {
+            for (int i = 0; i < format.getElementCount(); i++) {
+                VertexFormatElement element = format.getElement(i);
+                if (element.getUsage() == usage && element.getIndex() == 0 && element.getType() == VertexFormatElement.EnumType.FLOAT) {
+                    return format.getOffset(i) / 4;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+}
@@ -1,8 +1,6 @@
 package mcmultipart.client;
 
-import java.util.HashSet;
 import java.util.Optional;
-import java.util.Set;
 
 import org.lwjgl.opengl.GL11;
 
@@ -85,14 +83,9 @@ public class TESRMultipartContainer extends TileEntitySpecialRenderer<TileMultip
             }
         }
 
-        Set<IMultipartTile> fast = new HashSet<>(), slow = new HashSet<>();
-        te.getParts().values().forEach(p -> {
-            if (p.getTile() != null) {
-                (p.getTile().hasFastRenderer() ? fast : slow).add(p.getTile());
-            }
-        });
+        IMultipartTile[] fast = te.getFastRenderTiles(), slow = te.getSlowRenderTiles();
 
-        if (!fast.isEmpty()) {
+        if (fast.length > 0) {
             Tessellator tessellator = Tessellator.getInstance();
             VertexBuffer buffer = tessellator.getBuffer();
             this.bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
@@ -109,13 +102,13 @@ public class TESRMultipartContainer extends TileEntitySpecialRenderer<TileMultip
 
             buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
 
-            fast.forEach(t -> {
+            for (IMultipartTile t : fast) {
                 if (t.shouldRenderInPass(pass)) {
                     buffer.setTranslation(0, 0, 0);
                     TileEntityRendererDispatcher.instance.getSpecialRenderer(t.getTileEntity()).renderTileEntityFast(t.getTileEntity(), x,
                             y, z, partialTicks, destroyStage, buffer);
                 }
-            });
+            }
 
             if (pass > 0) {
                 buffer.sortVertexData((float) TileEntityRendererDispatcher.staticPlayerX,
@@ -126,23 +119,22 @@ public class TESRMultipartContainer extends TileEntitySpecialRenderer<TileMultip
             RenderHelper.enableStandardItemLighting();
         }
 
-        slow.forEach(t -> {
+        for (IMultipartTile t : slow) {
             if (t.shouldRenderInPass(pass)) {
                 TileEntityRendererDispatcher.instance.renderTileEntityAt(t.getTileEntity(), x, y, z, partialTicks, destroyStage);
             }
-        });
+        }
     }
 
     @Override
     public void renderTileEntityFast(TileMultipartContainer te, double x, double y, double z, float partialTicks, int destroyStage,
             VertexBuffer buffer) {
-        te.getParts().values().forEach(p -> {
-            IMultipartTile t = p.getTile();
-            if (t != null && t.hasFastRenderer() && t.shouldRenderInPass(pass)) {
+        for (IMultipartTile t : te.getFastRenderTiles()) {
+            if (t.shouldRenderInPass(pass)) {
                 TileEntityRendererDispatcher.instance.getSpecialRenderer(t.getTileEntity()).renderTileEntityFast(t.getTileEntity(), x, y, z,
                         partialTicks, destroyStage, buffer);
             }
-        });
+        }
     }
 
     private static void startBreaking() {
@@ -1,38 +1,77 @@
 package mcmultipart.multipart;
 
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumSet;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 import com.google.common.base.Preconditions;
 
 import mcmultipart.MCMultiPart;
 import mcmultipart.api.container.IPartInfo;
+import mcmultipart.api.microblock.IMicroblock;
 import mcmultipart.api.multipart.IMultipart;
 import mcmultipart.api.multipart.IMultipartTile;
 import mcmultipart.api.multipart.MultipartHelper;
+import mcmultipart.api.multipart.MultipartOcclusionHelper;
+import mcmultipart.api.multipart.OcclusionMask;
 import mcmultipart.api.slot.IPartSlot;
 import mcmultipart.api.world.IWorldView;
+import mcmultipart.block.BlockMultipartContainer;
 import mcmultipart.block.TileMultipartContainer;
 import mcmultipart.util.MCMPBlockAccessWrapper;
 import mcmultipart.util.MCMPWorldWrapper;
+import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.EnumBlockRenderType;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 
 public final class PartInfo implements IPartInfo {
 
-    private static final List<BlockRenderLayer> RENDER_LAYERS = Arrays.asList(BlockRenderLayer.values());
+    private static final BlockRenderLayer[] RENDER_LAYERS = BlockRenderLayer.values();
+
+    // Parts that use the default ray trace can only be hit within the bounding box of their state, so it can be used to skip them
+    private static final ClassValue<Boolean> DEFAULT_PART_TRACE = new ClassValue<Boolean>() {
+
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return isDeclaredBy(type, IMultipart.class, new String[] { "collisionRayTrace" }, IPartInfo.class, Vec3d.class, Vec3d.class);
+        }
+    };
+    private static final ClassValue<Boolean> DEFAULT_BLOCK_TRACE = new ClassValue<Boolean>() {
+
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return isDeclaredBy(type, Block.class, new String[] { "collisionRayTrace", "func_180636_a" }, IBlockState.class, World.class,
+                    BlockPos.class, Vec3d.class, Vec3d.class);
+        }
+    };
+    // Likewise, parts that use the default collision only have their state's collision box, which doesn't depend on the entity
+    private static final ClassValue<Boolean> DEFAULT_PART_COLLISION = new ClassValue<Boolean>() {
+
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return isDeclaredBy(type, IMultipart.class, new String[] { "addCollisionBoxToList" }, IPartInfo.class, AxisAlignedBB.class,
+                    List.class, Entity.class, boolean.class);
+        }
+    };
+    private static final ClassValue<Boolean> DEFAULT_BLOCK_COLLISION = new ClassValue<Boolean>() {
+
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return isDeclaredBy(type, Block.class, new String[] { "addCollisionBoxToList", "func_185477_a" }, IBlockState.class,
+                    World.class, BlockPos.class, AxisAlignedBB.class, List.class, Entity.class, boolean.class);
+        }
+    };
 
     private TileMultipartContainer container;
     private final IPartSlot slot;
@@ -43,7 +82,12 @@ public final class PartInfo implements IPartInfo {
     private IWorldView view;
     private MCMPWorldWrapper world;
 
-    private Set<Long> scheduledTicks;
+    private List<AxisAlignedBB> occlusionBoxes;
+    private AxisAlignedBB occlusionBounds;
+    private OcclusionMask occlusionMask;
+
+    private volatile ClientInfo clientInfo;
+    private volatile int clientInfoVersion;
 
     public PartInfo(TileMultipartContainer container, IPartSlot slot, IMultipart part, IBlockState state, IMultipartTile tile) {
         this.container = container;
@@ -106,6 +150,8 @@ public final class PartInfo implements IPartInfo {
         if (checkTE && (this.tile == null || this.tile.shouldRefresh(getWorld(), getPos(), oldState, state))) {
             setTile(part.createMultipartTile(getWorld(), getSlot(), state));
         }
+
+        invalidateCaches();
     }
 
     public void setTile(IMultipartTile tile) {
@@ -115,6 +161,70 @@ public final class PartInfo implements IPartInfo {
             this.tile.setPos(getPos());
             this.tile.setPartInfo(this);
         }
+        invalidateCaches();
+    }
+
+    // Called when the state, tile or tile data of this part changes in a way that may affect any of the cached data
+    public void invalidateCaches() {
+        invalidateOcclusion();
+        clientInfoVersion++;
+        if (container != null && container.getParts().get(slot) == this) {
+            container.invalidateCaches();
+        }
+    }
+
+    // Occlusion boxes may depend on the neighbours of the part, so they also need to be cleared when those change
+    public void invalidateOcclusion() {
+        occlusionBoxes = null;
+        occlusionBounds = null;
+        occlusionMask = null;
+    }
+
+    @Override
+    public List<AxisAlignedBB> getOcclusionBoxes() {
+        if (occlusionBoxes == null) {
+            occlusionBoxes = part.getOcclusionBoxes(this);
+            occlusionBounds = MultipartOcclusionHelper.getBounds(occlusionBoxes);
+        }
+        return occlusionBoxes;
+    }
+
+    @Override
+    public AxisAlignedBB getOcclusionBounds() {
+        getOcclusionBoxes();
+        return occlusionBounds;
+    }
+
+    @Override
+    public OcclusionMask getOcclusionMask() {
+        if (occlusionMask == null) {
+            occlusionMask = OcclusionMask.of(getOcclusionBoxes());
+        }
+        return occlusionMask;
+    }
+
+    // Returns the box that any ray trace hit on this part is known to be in, or null if the part can be hit anywhere.
+    // Bounding boxes can depend on the neighbours of the part, so this isn't cached.
+    public AxisAlignedBB getRayTraceBounds() {
+        if (DEFAULT_PART_TRACE.get(part.getClass()) && DEFAULT_BLOCK_TRACE.get(state.getBlock().getClass())) {
+            return state.getBoundingBox(getWorld(), getPos());
+        }
+        return null;
+    }
+
+    // Whether the only collision box of this part is the collision box of its state, regardless of the colliding entity
+    public boolean hasDefaultCollision() {
+        return DEFAULT_PART_COLLISION.get(part.getClass()) && DEFAULT_BLOCK_COLLISION.get(state.getBlock().getClass());
+    }
+
+    private static boolean isDeclaredBy(Class<?> type, Class<?> owner, String[] names, Class<?>... parameters) {
+        for (String name : names) {
+            try {
+                return type.getMethod(name, parameters).getDeclaringClass() == owner;
+            } catch (NoSuchMethodException e) {
+            }
+        }
+        return false;
     }
 
     public IBlockAccess wrapAsNeeded(IBlockAccess world) {
@@ -128,52 +238,117 @@ public final class PartInfo implements IPartInfo {
         return world;
     }
 
-    public void copyMetaFrom(PartInfo info) {
-        scheduledTicks = info.scheduledTicks;
+    public void scheduleTick(int delay) {
+        getContainer().scheduleTick(this, delay);
     }
 
-    public void scheduleTick(int delay) {
-        if (scheduledTicks == null) {
-            scheduledTicks = new HashSet<>();
-        }
-        scheduledTicks.add(delay + getContainer().getWorld().getTotalWorldTime());
-        getContainer().getWorld().scheduleUpdate(getContainer().getPos(), MCMultiPart.multipart, delay);
+    public boolean hasPendingTicks() {
+        return getContainer().hasPendingTicks(this);
     }
 
-    public boolean checkAndRemoveTick() {
-        return scheduledTicks != null && scheduledTicks.remove(getContainer().getWorld().getTotalWorldTime());
+    // Returns the boxes of this part that are currently opaque and can hide the faces of other parts. This is checked against the state of
+    // the material every time, as some blocks like leaves are only opaque with some graphics settings.
+    public List<AxisAlignedBB> getOpaqueBoxes() {
+        return isOpaque() ? getOcclusionBoxes() : Collections.emptyList();
     }
 
-    public boolean hasPendingTicks() {
-        return scheduledTicks != null && !scheduledTicks.isEmpty();
+    private boolean isOpaque() {
+        return part instanceof IMicroblock && ((IMicroblock) part).getMaterial(this).getDefaultState().isOpaqueCube();
+    }
+
+    // Containers can change without their state changing, so their version is checked along with their state
+    private static int getNeighborVersion(IBlockAccess world, BlockPos pos, IBlockState state) {
+        if (state.getBlock() == MCMultiPart.multipart) {
+            return BlockMultipartContainer.getTile(world, pos).map(TileMultipartContainer::getVersion).orElse(0);
+        }
+        return 0;
     }
 
+    public void invalidateClientInfo() {
+        clientInfoVersion++;
+    }
+
+    // Chunk rebuilds run off the main thread, so the cached info is only reused if it was computed for the current version of this part
+    // and its neighbours haven't changed, as they're what the actual state usually depends on
     public ClientInfo getInfo(IBlockAccess world, BlockPos pos) {
+        int version = clientInfoVersion;
+        ClientInfo info = clientInfo;
+        boolean opaque = isOpaque();
+        if (info != null && info.version == version && info.opaque == opaque && info.pos.equals(pos) && info.hasSameNeighbors(world)) {
+            return info;
+        }
+        if (info != null && info.opaque != opaque) {
+            container.invalidateCoveredFaces();
+        }
+
         IBlockAccess world_ = wrapAsNeeded(world);
         IBlockState actualState = part.getActualState(world_, pos, this);
         IBlockState extendedState = part.getExtendedState(world_, pos, this, actualState);
-        Set<BlockRenderLayer> renderLayers;
+        int renderLayers = 0;
         if (state.getRenderType() != EnumBlockRenderType.INVISIBLE) {
-            renderLayers = EnumSet.noneOf(BlockRenderLayer.class);
-            RENDER_LAYERS//
-                    .stream()//
-                    .filter(layer -> part.canRenderInLayer(world_, pos, this, actualState, layer))//
-                    .forEach(renderLayers::add);
-        } else {
-            renderLayers = Collections.emptySet();
+            for (BlockRenderLayer layer : RENDER_LAYERS) {
+                if (part.canRenderInLayer(world_, pos, this, actualState, layer)) {
+                    renderLayers |= 1 << layer.ordinal();
+                }
+            }
+        }
+        IBlockState[] neighbors = new IBlockState[EnumFacing.VALUES.length];
+        int[] neighborVersions = new int[EnumFacing.VALUES.length];
+        for (EnumFacing face : EnumFacing.VALUES) {
+            BlockPos neighborPos = pos.offset(face);
+            neighbors[face.ordinal()] = world.getBlockState(neighborPos);
+            neighborVersions[face.ordinal()] = getNeighborVersion(world, neighborPos, neighbors[face.ordinal()]);
         }
-        return new ClientInfo(actualState, extendedState, renderLayers);
+        // Chunk rebuilds pass a mutable position that keeps moving after this returns
+        info = new ClientInfo(version, pos.toImmutable(), neighbors, neighborVersions, actualState, extendedState, renderLayers,
+                part instanceof IMicroblock, opaque);
+        clientInfo = info;
+        return info;
     }
 
     public class ClientInfo {
 
+        private final int version;
+        private final BlockPos pos;
+        private final IBlockState[] neighbors;
+        private final int[] neighborVersions;
         private final IBlockState actualState, extendedState;
-        private final Set<BlockRenderLayer> renderLayers;
-
-        private ClientInfo(IBlockState actualState, IBlockState extendedState, Set<BlockRenderLayer> renderLayers) {
+        private final int renderLayers;
+        private final boolean microblock, opaque;
+        private final List<AxisAlignedBB> opaqueBoxes;
+
+        private ClientInfo(int version, BlockPos pos, IBlockState[] neighbors, int[] neighborVersions, IBlockState actualState,
+                IBlockState extendedState, int renderLayers, boolean microblock, boolean opaque) {
+            this.version = version;
+            this.pos = pos;
+            this.neighbors = neighbors;
+            this.neighborVersions = neighborVersions;
             this.actualState = actualState;
             this.extendedState = extendedState;
             this.renderLayers = renderLayers;
+            this.microblock = microblock;
+            this.opaque = opaque;
+            this.opaqueBoxes = opaque ? getOcclusionBoxes() : Collections.emptyList();
+        }
+
+        private boolean hasSameNeighbors(IBlockAccess world) {
+            for (EnumFacing face : EnumFacing.VALUES) {
+                BlockPos neighborPos = pos.offset(face);
+                IBlockState neighbor = world.getBlockState(neighborPos);
+                if (neighbor != neighbors[face.ordinal()]
+                        || getNeighborVersion(world, neighborPos, neighbor) != neighborVersions[face.ordinal()]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public boolean isMicroblock() {
+            return microblock;
+        }
+
+        public List<AxisAlignedBB> getOpaqueBoxes() {
+            return opaqueBoxes;
         }
 
         public IBlockState getActualState() {
@@ -185,7 +360,7 @@ public final class PartInfo implements IPartInfo {
         }
 
         public boolean canRenderInLayer(BlockRenderLayer layer) {
-            return renderLayers.contains(layer);
+            return layer != null && (renderLayers & (1 << layer.ordinal())) != 0;
         }
 
     }
@@ -211,6 +386,7 @@ public final class PartInfo implements IPartInfo {
                 if (tag != null) {
                     if (info.getTile() != null) {
                         info.getTile().handleUpdateTag(tag);
+                        info.invalidateCaches();
                     } else {
                         MCMultiPart.log.error("Failed to handle the addition of the part " + state.getBlock().getRegistryName());
                         return;
@@ -237,6 +413,7 @@ public final class PartInfo implements IPartInfo {
                 }
                 if (info.getTile() != null) {
                     info.getTile().onDataPacket(MCMultiPart.proxy.getNetworkManager(), pkt);
+                    info.invalidateCaches();
                 }
             } else {
                 info.setTile(info.part.createMultipartTile(world, slot, state));
@@ -251,6 +428,7 @@ public final class PartInfo implements IPartInfo {
                     if (pkt != null) {
                         if (info.getTile() != null) {
                             info.getTile().onDataPacket(MCMultiPart.proxy.getNetworkManager(), pkt);
+                            info.invalidateCaches();
                         } else {
                             MCMultiPart.log.error("Failed to handle update packet for part " + state.getBlock().getRegistryName());
                             return;
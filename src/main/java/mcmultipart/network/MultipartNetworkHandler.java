@@ -1,10 +1,19 @@
 package mcmultipart.network;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.commons.lang3.tuple.Pair;
+
 import mcmultipart.MCMultiPart;
-import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.entity.player.EntityPlayerMP;
-import net.minecraft.server.management.PlayerChunkMap;
+import mcmultipart.api.slot.IPartSlot;
+import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
@@ -15,25 +24,89 @@ public class MultipartNetworkHandler {
 
     public static final SimpleNetworkWrapper wrapper = NetworkRegistry.INSTANCE.newSimpleChannel(MCMultiPart.MODID);
 
+    // Part packets waiting for the end of the tick, per world and chunk, in the order they were first queued
+    private static final Map<World, Map<ChunkPos, Map<Pair<BlockPos, IPartSlot>, PendingPart>>> queue = new WeakHashMap<>();
+
     public static void init() {
         wrapper.registerMessage(PacketMultipartChange.class, PacketMultipartChange.class, 0, Side.CLIENT);
         wrapper.registerMessage(PacketMultipartAdd.class, PacketMultipartAdd.class, 1, Side.CLIENT);
         wrapper.registerMessage(PacketMultipartRemove.class, PacketMultipartRemove.class, 2, Side.CLIENT);
+        wrapper.registerMessage(PacketMultipartBatch.class, PacketMultipartBatch.class, 3, Side.CLIENT);
     }
 
+    // The message is only encoded once, and sent straight to the players the chunk has been sent to
     public static void sendToAllWatching(Packet<?> message, World world, BlockPos pos) {
         if (world instanceof WorldServer) {
-            PlayerChunkMap manager = ((WorldServer) world).getPlayerChunkMap();
-            for (EntityPlayer player : world.playerEntities) {
-                if (manager.isPlayerWatchingChunk((EntityPlayerMP) player, pos.getX() >> 4, pos.getZ() >> 4)) {
-                    wrapper.sendTo(message, (EntityPlayerMP) player);
-                }
+            PlayerChunkMapEntry entry = ((WorldServer) world).getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
+            if (entry != null && entry.isSentToPlayers()) {
+                entry.sendPacket(wrapper.getPacketFrom(message));
             }
         }
     }
 
+    // Queues an addition, change or removal packet for a part, to be sent along with the rest of the chunk's at the end of the tick.
+    // Only the latest change of a part is kept, and parts that are added and removed within the same tick aren't sent at all.
+    public static void queueToAllWatching(Packet<?> message, World world, BlockPos pos, IPartSlot slot) {
+        if (world instanceof WorldServer) {
+            queue.computeIfAbsent(world, w -> new HashMap<>()).computeIfAbsent(new ChunkPos(pos), c -> new LinkedHashMap<>())
+                    .computeIfAbsent(Pair.of(pos, slot), k -> new PendingPart()).add(message);
+        }
+    }
+
+    public static void flushQueue(World world) {
+        Map<ChunkPos, Map<Pair<BlockPos, IPartSlot>, PendingPart>> chunks = queue.remove(world);
+        if (chunks == null) {
+            return;
+        }
+        chunks.forEach((chunk, parts) -> {
+            List<Packet<?>> packets = new ArrayList<>();
+            parts.values().forEach(p -> p.addTo(packets));
+            if (packets.size() == 1) {
+                sendToAllWatching(packets.get(0), world, chunk.getBlock(0, 0, 0));
+            } else if (!packets.isEmpty()) {
+                sendToAllWatching(new PacketMultipartBatch(packets), world, chunk.getBlock(0, 0, 0));
+            }
+        });
+    }
+
     public static void sendToServer(Packet<?> message) {
         wrapper.sendToServer(message);
     }
 
-}
\ No newline at end of file
+    private static final class PendingPart {
+
+        private PacketMultipartRemove remove;
+        private PacketMultipartAdd add;
+        private PacketMultipartChange change;
+
+        private void add(Packet<?> message) {
+            if (message instanceof PacketMultipartRemove) {
+                // Removing a part that was added this tick cancels the addition, but not the removal of the part it replaced
+                if (add == null) {
+                    remove = (PacketMultipartRemove) message;
+                }
+                add = null;
+                change = null;
+            } else if (message instanceof PacketMultipartAdd) {
+                add = (PacketMultipartAdd) message;
+                change = null;
+            } else {
+                change = (PacketMultipartChange) message;
+            }
+        }
+
+        private void addTo(List<Packet<?>> packets) {
+            if (remove != null) {
+                packets.add(remove);
+            }
+            if (add != null) {
+                packets.add(add);
+            }
+            if (change != null) {
+                packets.add(change);
+            }
+        }
+
+    }
+
+}
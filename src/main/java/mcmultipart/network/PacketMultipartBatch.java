@@ -0,0 +1,56 @@
+package mcmultipart.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.network.PacketBuffer;
+
+public class PacketMultipartBatch extends Packet<PacketMultipartBatch> {
+
+    private static final int CHANGE = 0, ADD = 1, REMOVE = 2;
+
+    private List<Packet<?>> packets;
+
+    public PacketMultipartBatch(List<Packet<?>> packets) {
+        this.packets = packets;
+    }
+
+    public PacketMultipartBatch() {
+    }
+
+    @Override
+    public void handleClient(EntityPlayer player) {
+        for (Packet<?> packet : packets) {
+            packet.handleClient(player);
+        }
+    }
+
+    @Override
+    public void handleServer(EntityPlayer player) {
+
+    }
+
+    @Override
+    public void toBytes(PacketBuffer buf) throws Exception {
+        buf.writeVarInt(packets.size());
+        for (Packet<?> packet : packets) {
+            buf.writeByte(packet instanceof PacketMultipartChange ? CHANGE : packet instanceof PacketMultipartAdd ? ADD : REMOVE);
+            packet.toBytes(buf);
+        }
+    }
+
+    @Override
+    public void fromBytes(PacketBuffer buf) throws Exception {
+        int size = buf.readVarInt();
+        packets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int type = buf.readByte();
+            Packet<?> packet = type == CHANGE ? new PacketMultipartChange() : type == ADD ? new PacketMultipartAdd()
+                    : new PacketMultipartRemove();
+            packet.fromBytes(buf);
+            packets.add(packet);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package mcmultipart.slot;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+
+import mcmultipart.api.slot.EnumSlotAccess;
+import mcmultipart.api.slot.IPartSlot;
+
+// The slots that can be accessed from a face or edge, sorted by priority, along with a bitmask of their IDs
+public final class SlotAccessTable {
+
+    private final List<Entry<IPartSlot, EnumSlotAccess>> entries;
+    private final IPartSlot[] slots;
+    private final int[] ids;
+    private final EnumSlotAccess[] access;
+    private final long[] mask;
+
+    public SlotAccessTable(List<Entry<IPartSlot, EnumSlotAccess>> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.slots = new IPartSlot[entries.size()];
+        this.ids = new int[entries.size()];
+        this.access = new EnumSlotAccess[entries.size()];
+        int maxId = 0;
+        for (int i = 0; i < slots.length; i++) {
+            Entry<IPartSlot, EnumSlotAccess> entry = entries.get(i);
+            slots[i] = entry.getKey();
+            ids[i] = SlotRegistry.INSTANCE.getSlotID(entry.getKey());
+            access[i] = entry.getValue();
+            maxId = Math.max(maxId, ids[i]);
+        }
+        this.mask = new long[(maxId >>> 6) + 1];
+        for (int id : ids) {
+            if (id >= 0) {
+                mask[id >>> 6] |= 1L << id;
+            }
+        }
+    }
+
+    public List<Entry<IPartSlot, EnumSlotAccess>> getEntries() {
+        return entries;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    public IPartSlot getSlot(int index) {
+        return slots[index];
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public EnumSlotAccess getAccess(int index) {
+        return access[index];
+    }
+
+    public long[] getMask() {
+        return mask;
+    }
+
+    // Counts how many of the slots in this table are set in the specified occupancy mask
+    public int countOccupied(long[] occupied) {
+        int count = 0;
+        for (int i = 0, length = Math.min(mask.length, occupied.length); i < length; i++) {
+            count += Long.bitCount(mask[i] & occupied[i]);
+        }
+        return count;
+    }
+
+}
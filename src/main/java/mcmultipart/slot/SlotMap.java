@@ -0,0 +1,253 @@
+package mcmultipart.slot;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.google.common.base.Preconditions;
+
+import mcmultipart.api.slot.IPartSlot;
+
+// A map of slots to values backed by an array indexed by slot ID and a bitmask of the occupied slots
+public class SlotMap<V> extends AbstractMap<IPartSlot, V> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] elements = EMPTY;
+    private long[] mask = new long[1];
+    private int size = 0;
+
+    private Set<Entry<IPartSlot, V>> entrySet;
+    private Collection<V> valueCollection;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof IPartSlot ? getById(SlotRegistry.INSTANCE.getSlotID((IPartSlot) key)) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getById(int id) {
+        return id >= 0 && id < elements.length ? (V) elements[id] : null;
+    }
+
+    public boolean isOccupied(int id) {
+        return id >= 0 && (id >>> 6) < mask.length && (mask[id >>> 6] & (1L << id)) != 0;
+    }
+
+    @Override
+    public V put(IPartSlot key, V value) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(value);
+        return putById(SlotRegistry.INSTANCE.getSlotID(key), value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V putById(int id, V value) {
+        Preconditions.checkArgument(id >= 0, "Unregistered slot!");
+        Preconditions.checkNotNull(value);
+        if (id >= elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(id + 1, SlotRegistry.INSTANCE.getSlots().size()));
+        }
+        if ((id >>> 6) >= mask.length) {
+            mask = Arrays.copyOf(mask, (id >>> 6) + 1);
+        }
+        V prev = (V) elements[id];
+        elements[id] = value;
+        if (prev == null) {
+            mask[id >>> 6] |= 1L << id;
+            size++;
+        }
+        return prev;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof IPartSlot ? removeById(SlotRegistry.INSTANCE.getSlotID((IPartSlot) key)) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V removeById(int id) {
+        if (id < 0 || id >= elements.length) {
+            return null;
+        }
+        V prev = (V) elements[id];
+        if (prev != null) {
+            elements[id] = null;
+            mask[id >>> 6] &= ~(1L << id);
+            size--;
+        }
+        return prev;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, null);
+        Arrays.fill(mask, 0L);
+        size = 0;
+    }
+
+    // Returns the first occupied slot ID that's greater than or equal to the specified one, or -1 if there are none
+    public int nextId(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        int word = from >>> 6;
+        if (word >= mask.length) {
+            return -1;
+        }
+        long bits = mask[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == mask.length) {
+                return -1;
+            }
+            bits = mask[word];
+        }
+    }
+
+    public long[] getMask() {
+        return mask;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super IPartSlot, ? super V> action) {
+        for (int id = nextId(0); id != -1; id = nextId(id + 1)) {
+            V value = getById(id);
+            if (value != null) {
+                action.accept(SlotRegistry.INSTANCE.getSlotFromID(id), value);
+            }
+        }
+    }
+
+    public void forEachValue(Consumer<? super V> action) {
+        for (int id = nextId(0); id != -1; id = nextId(id + 1)) {
+            V value = getById(id);
+            if (value != null) {
+                action.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<IPartSlot, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<IPartSlot, V>>() {
+
+                @Override
+                public Iterator<Entry<IPartSlot, V>> iterator() {
+                    return new SlotIterator<Entry<IPartSlot, V>>() {
+
+                        @Override
+                        protected Entry<IPartSlot, V> get(int id) {
+                            return new SimpleImmutableEntry<>(SlotRegistry.INSTANCE.getSlotFromID(id), getById(id));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    SlotMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @Override
+    public Collection<V> values() {
+        if (valueCollection == null) {
+            valueCollection = new AbstractCollection<V>() {
+
+                @Override
+                public Iterator<V> iterator() {
+                    return new SlotIterator<V>() {
+
+                        @Override
+                        protected V get(int id) {
+                            return getById(id);
+                        }
+                    };
+                }
+
+                @Override
+                public void forEach(Consumer<? super V> action) {
+                    forEachValue(action);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    SlotMap.this.clear();
+                }
+            };
+        }
+        return valueCollection;
+    }
+
+    private abstract class SlotIterator<T> implements Iterator<T> {
+
+        private int cursor = 0, last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return nextId(cursor) != -1;
+        }
+
+        @Override
+        public T next() {
+            int id = nextId(cursor);
+            if (id == -1) {
+                throw new NoSuchElementException();
+            }
+            last = id;
+            cursor = id + 1;
+            return get(id);
+        }
+
+        @Override
+        public void remove() {
+            if (last == -1) {
+                throw new IllegalStateException();
+            }
+            removeById(last);
+            last = -1;
+        }
+
+        protected abstract T get(int id);
+
+    }
+
+}
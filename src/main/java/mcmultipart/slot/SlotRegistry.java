@@ -11,30 +11,58 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
+import mcmultipart.api.container.IMultipartContainer;
+import mcmultipart.api.slot.EnumCenterSlot;
+import mcmultipart.api.slot.EnumCornerSlot;
 import mcmultipart.api.slot.EnumEdgeSlot;
+import mcmultipart.api.slot.EnumFaceSlot;
 import mcmultipart.api.slot.EnumSlotAccess;
 import mcmultipart.api.slot.IPartSlot;
+import mcmultipart.api.slot.ISlotViewer;
 import mcmultipart.api.slot.ISlottedContainer;
+import mcmultipart.api.slot.SlotUtil.BooleanBinaryOperator;
 import net.minecraft.util.EnumFacing;
 import net.minecraftforge.fml.common.registry.FMLControlledNamespacedRegistry;
 import net.minecraftforge.fml.common.registry.GameRegistry;
 
-public enum SlotRegistry {
+public enum SlotRegistry implements ISlotViewer {
 
     INSTANCE;
 
-    private final Map<EnumFacing, List<Entry<IPartSlot, EnumSlotAccess>>> accessFace = new IdentityHashMap<>();
-    private final Map<EnumEdgeSlot, Map<EnumFacing, List<Entry<IPartSlot, EnumSlotAccess>>>> accessEdge = new IdentityHashMap<>();
-    private final List<Entry<IPartSlot, EnumSlotAccess>> mergeAll = new ArrayList<>();
+    private final Map<EnumFacing, SlotAccessTable> accessFace = new IdentityHashMap<>();
+    private final Map<EnumEdgeSlot, Map<EnumFacing, SlotAccessTable>> accessEdge = new IdentityHashMap<>();
+    private SlotAccessTable mergeAll;
 
     private FMLControlledNamespacedRegistry<IPartSlot> slotRegistry;
     private List<IPartSlot> allSlots;
+    private volatile SlotIds slotIds;
+
+    public void computeIds() {
+        slotIds = new SlotIds(getRegistry());
+    }
+
+    // Persistent registry IDs can change when a world is loaded or a server is joined, so everything that has them baked in is
+    // rebuilt whenever the registry is remapped
+    public void onIdsRemapped() {
+        allSlots = null;
+        if (mergeAll != null) {
+            computeAccess();
+        } else {
+            computeIds();
+        }
+    }
 
     public void computeAccess() {
         List<IPartSlot> slots = getSlots();
+        computeIds();
 
-        slots.forEach(s -> mergeAll.add(new AbstractMap.SimpleEntry<>(s, EnumSlotAccess.MERGE)));
+        List<Entry<IPartSlot, EnumSlotAccess>> all = new ArrayList<>();
+        slots.forEach(s -> all.add(new AbstractMap.SimpleEntry<>(s, EnumSlotAccess.MERGE)));
+        mergeAll = new SlotAccessTable(all);
 
         for (EnumFacing face : EnumFacing.VALUES) {
             List<Entry<IPartSlot, EnumSlotAccess>> accesses = new ArrayList<>();
@@ -46,11 +74,11 @@ public enum SlotRegistry {
             }
             Collections.sort(accesses,
                     (a, b) -> Integer.compare(b.getKey().getFaceAccessPriority(face), a.getKey().getFaceAccessPriority(face)));
-            accessFace.put(face, Collections.unmodifiableList(accesses));
+            accessFace.put(face, new SlotAccessTable(accesses));
         }
 
         for (EnumEdgeSlot edge : EnumEdgeSlot.VALUES) {
-            Map<EnumFacing, List<Entry<IPartSlot, EnumSlotAccess>>> map = new IdentityHashMap<>();
+            Map<EnumFacing, SlotAccessTable> map = new IdentityHashMap<>();
             for (EnumFacing face : EnumFacing.VALUES) {
                 List<Entry<IPartSlot, EnumSlotAccess>> accesses = new ArrayList<>();
                 for (IPartSlot slot : slots) {
@@ -61,52 +89,66 @@ public enum SlotRegistry {
                 }
                 Collections.sort(accesses, (a, b) -> Integer.compare(b.getKey().getEdgeAccessPriority(edge, face),
                         a.getKey().getEdgeAccessPriority(edge, face)));
-                map.put(face, Collections.unmodifiableList(accesses));
+                map.put(face, new SlotAccessTable(accesses));
             }
             accessEdge.put(edge, map);
         }
     }
 
     public List<Entry<IPartSlot, EnumSlotAccess>> getAccessPriorities(EnumFacing face) {
-        return face == null ? mergeAll : accessFace.get(face);
+        return getAccessTable(face).getEntries();
     }
 
     public List<Entry<IPartSlot, EnumSlotAccess>> getAccessPriorities(EnumEdgeSlot edge, EnumFacing face) {
+        return getAccessTable(edge, face).getEntries();
+    }
+
+    public SlotAccessTable getAccessTable(EnumFacing face) {
+        return face == null ? mergeAll : accessFace.get(face);
+    }
+
+    public SlotAccessTable getAccessTable(EnumEdgeSlot edge, EnumFacing face) {
         return face == null || edge == null ? mergeAll : accessEdge.get(edge).get(face);
     }
 
-    public List<IPartSlot> getSlots() {
+    private FMLControlledNamespacedRegistry<IPartSlot> getRegistry() {
         if (slotRegistry == null) {
             slotRegistry = (FMLControlledNamespacedRegistry<IPartSlot>) GameRegistry.findRegistry(IPartSlot.class);
         }
+        return slotRegistry;
+    }
+
+    public List<IPartSlot> getSlots() {
         if (allSlots == null) {
-            allSlots = Collections.unmodifiableList(slotRegistry.getValues());
+            allSlots = Collections.unmodifiableList(getRegistry().getValues());
         }
         return allSlots;
     }
 
     public int getSlotID(IPartSlot slot) {
-        if (slotRegistry == null) {
-            slotRegistry = (FMLControlledNamespacedRegistry<IPartSlot>) GameRegistry.findRegistry(IPartSlot.class);
-        }
-        return slotRegistry.getId(slot);
+        SlotIds ids = slotIds;
+        int id = ids != null ? ids.getId(slot) : -1;
+        return id >= 0 ? id : getRegistry().getId(slot);
     }
 
     public IPartSlot getSlotFromID(int slot) {
-        if (slotRegistry == null) {
-            slotRegistry = (FMLControlledNamespacedRegistry<IPartSlot>) GameRegistry.findRegistry(IPartSlot.class);
+        SlotIds ids = slotIds;
+        if (ids != null && slot >= 0 && slot < ids.slots.length && ids.slots[slot] != null) {
+            return ids.slots[slot];
         }
-        return slotRegistry.getObjectById(slot);
+        return getRegistry().getObjectById(slot);
     }
 
+    @Override
     public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
             boolean ignoreNull, EnumFacing face) {
-        return viewContainer(container, converter, joiner, startVal, ignoreNull, getAccessPriorities(face));
+        return viewContainer(container, converter, joiner, startVal, ignoreNull, getAccessTable(face));
     }
 
+    @Override
     public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
             boolean ignoreNull, EnumEdgeSlot edge, EnumFacing face) {
-        return viewContainer(container, converter, joiner, startVal, ignoreNull, getAccessPriorities(edge, face));
+        return viewContainer(container, converter, joiner, startVal, ignoreNull, getAccessTable(edge, face));
     }
 
     public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
@@ -160,4 +202,204 @@ public enum SlotRegistry {
         return mergeList != null && !mergeList.isEmpty() ? mergeList.size() == 1 ? mergeList.get(0) : joiner.apply(mergeList) : startVal;
     }
 
+    public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
+            boolean ignoreNull, SlotAccessTable access) {
+        SlotMap<?> parts = getSlotMap(container);
+        int remaining = countRemaining(parts, access);
+        if (remaining == 0) {
+            return startVal;
+        }
+
+        List<O> mergeList = null;
+        for (int i = 0; remaining > 0 && i < access.size(); i++) {
+            T element = getElement(container, parts, access, i);
+            if (element == null) {
+                continue;
+            }
+            remaining--;
+            O value = converter.apply(element);
+            if (ignoreNull && value == null) {
+                continue;
+            }
+            switch (access.getAccess(i)) {
+            case NONE:// Shouldn't happen
+                break;
+            case NON_NULL:
+                if (value != null) {
+                    if (mergeList != null) {
+                        mergeList.add(value);
+                        return joiner.apply(mergeList);
+                    } else if (startVal != null || !ignoreNull) {
+                        return joiner.apply(Arrays.asList(startVal, value));
+                    } else {
+                        return value;
+                    }
+                }
+                break;
+            case MERGE:
+                if (value != null) {
+                    if (mergeList == null) {
+                        mergeList = new LinkedList<>();
+                        if (startVal != null || !ignoreNull) {
+                            mergeList.add(startVal);
+                        }
+                    }
+                    mergeList.add(value);
+                }
+                break;
+            case OVERRIDE:
+                if (mergeList != null) {
+                    mergeList.add(value);
+                    return joiner.apply(mergeList);
+                } else if (startVal != null || !ignoreNull) {
+                    return joiner.apply(Arrays.asList(startVal, value));
+                } else {
+                    return value;
+                }
+            }
+        }
+        return mergeList != null && !mergeList.isEmpty() ? mergeList.size() == 1 ? mergeList.get(0) : joiner.apply(mergeList) : startVal;
+    }
+
+    @Override
+    public <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator joiner, int startVal,
+            EnumFacing face) {
+        return viewContainerInt(container, converter, joiner, startVal, getAccessTable(face));
+    }
+
+    @Override
+    public <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator joiner, int startVal,
+            EnumEdgeSlot edge, EnumFacing face) {
+        return viewContainerInt(container, converter, joiner, startVal, getAccessTable(edge, face));
+    }
+
+    public <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator joiner, int startVal,
+            SlotAccessTable access) {
+        SlotMap<?> parts = getSlotMap(container);
+        int remaining = countRemaining(parts, access);
+        int value = startVal;
+        for (int i = 0; remaining > 0 && i < access.size(); i++) {
+            T element = getElement(container, parts, access, i);
+            if (element == null) {
+                continue;
+            }
+            remaining--;
+            switch (access.getAccess(i)) {
+            case NONE:// Shouldn't happen
+                break;
+            case MERGE:
+                value = joiner.applyAsInt(value, converter.applyAsInt(element));
+                break;
+            case NON_NULL:
+            case OVERRIDE:
+                return joiner.applyAsInt(value, converter.applyAsInt(element));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public <T> boolean viewContainerBoolean(ISlottedContainer<T> container, Predicate<T> converter, BooleanBinaryOperator joiner,
+            boolean startVal, EnumFacing face) {
+        return viewContainerBoolean(container, converter, joiner, startVal, getAccessTable(face));
+    }
+
+    @Override
+    public <T> boolean viewContainerBoolean(ISlottedContainer<T> container, Predicate<T> converter, BooleanBinaryOperator joiner,
+            boolean startVal, EnumEdgeSlot edge, EnumFacing face) {
+        return viewContainerBoolean(container, converter, joiner, startVal, getAccessTable(edge, face));
+    }
+
+    public <T> boolean viewContainerBoolean(ISlottedContainer<T> container, Predicate<T> converter, BooleanBinaryOperator joiner,
+            boolean startVal, SlotAccessTable access) {
+        SlotMap<?> parts = getSlotMap(container);
+        int remaining = countRemaining(parts, access);
+        boolean value = startVal;
+        for (int i = 0; remaining > 0 && i < access.size(); i++) {
+            T element = getElement(container, parts, access, i);
+            if (element == null) {
+                continue;
+            }
+            remaining--;
+            switch (access.getAccess(i)) {
+            case NONE:// Shouldn't happen
+                break;
+            case MERGE:
+                value = joiner.applyAsBoolean(value, converter.test(element));
+                break;
+            case NON_NULL:
+            case OVERRIDE:
+                return joiner.applyAsBoolean(value, converter.test(element));
+            }
+        }
+        return value;
+    }
+
+    // If the container keeps track of its occupied slots, only look at the ones that are both occupied and accessible
+    private static SlotMap<?> getSlotMap(ISlottedContainer<?> container) {
+        if (container instanceof IMultipartContainer && ((IMultipartContainer) container).getParts() instanceof SlotMap) {
+            return (SlotMap<?>) ((IMultipartContainer) container).getParts();
+        }
+        return null;
+    }
+
+    private static int countRemaining(SlotMap<?> parts, SlotAccessTable access) {
+        return parts != null ? access.countOccupied(parts.getMask()) : Integer.MAX_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getElement(ISlottedContainer<T> container, SlotMap<?> parts, SlotAccessTable access, int index) {
+        return parts != null ? (T) parts.getById(access.getId(index)) : container.get(access.getSlot(index)).orElse(null);
+    }
+
+    // Dense lookup tables between slots and their registry IDs, so that the parts of a container can be accessed without going
+    // through the registry's hash maps. The built-in slots are looked up by ordinal, anything else falls back to the registry.
+    private static final class SlotIds {
+
+        private final int[] face = new int[EnumFaceSlot.VALUES.length];
+        private final int[] edge = new int[EnumEdgeSlot.VALUES.length];
+        private final int[] corner = new int[EnumCornerSlot.VALUES.length];
+        private final int center;
+        private final IPartSlot[] slots;
+
+        private SlotIds(FMLControlledNamespacedRegistry<IPartSlot> registry) {
+            for (EnumFaceSlot slot : EnumFaceSlot.VALUES) {
+                face[slot.ordinal()] = registry.getId(slot);
+            }
+            for (EnumEdgeSlot slot : EnumEdgeSlot.VALUES) {
+                edge[slot.ordinal()] = registry.getId(slot);
+            }
+            for (EnumCornerSlot slot : EnumCornerSlot.VALUES) {
+                corner[slot.ordinal()] = registry.getId(slot);
+            }
+            center = registry.getId(EnumCenterSlot.CENTER);
+
+            int maxId = -1;
+            for (IPartSlot slot : registry.getValues()) {
+                maxId = Math.max(maxId, registry.getId(slot));
+            }
+            slots = new IPartSlot[maxId + 1];
+            for (IPartSlot slot : registry.getValues()) {
+                int id = registry.getId(slot);
+                if (id >= 0) {
+                    slots[id] = slot;
+                }
+            }
+        }
+
+        private int getId(IPartSlot slot) {
+            if (slot instanceof EnumFaceSlot) {
+                return face[((EnumFaceSlot) slot).ordinal()];
+            } else if (slot instanceof EnumEdgeSlot) {
+                return edge[((EnumEdgeSlot) slot).ordinal()];
+            } else if (slot instanceof EnumCornerSlot) {
+                return corner[((EnumCornerSlot) slot).ordinal()];
+            } else if (slot == EnumCenterSlot.CENTER) {
+                return center;
+            }
+            return -1;
+        }
+
+    }
+
 }
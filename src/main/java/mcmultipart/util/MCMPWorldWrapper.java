@@ -250,6 +250,7 @@ public class MCMPWorldWrapper extends World implements IMultipartWorld {
     @Override
     public void notifyBlockUpdate(BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
         if (part.getPos().equals(pos)) {
+            part.invalidateCaches();
             if ((flags & 0b00001) != 0) {
                 notifyNeighborsOfStateChange(pos, newState.getBlock(), true);
                 part.getContainer().getParts().values().forEach(i -> {
@@ -259,7 +260,7 @@ public class MCMPWorldWrapper extends World implements IMultipartWorld {
                 });
             }
             if ((flags & 0b00010) != 0) {
-                MultipartNetworkHandler.sendToAllWatching(new PacketMultipartChange(part), part.getActualWorld(), pos);
+                MultipartNetworkHandler.queueToAllWatching(new PacketMultipartChange(part), part.getActualWorld(), pos, part.getSlot());
             }
             if ((flags & 0b00100) == 0) {
                 markBlockRangeForRenderUpdate(pos, pos);
@@ -284,14 +285,25 @@ public class MCMPWorldWrapper extends World implements IMultipartWorld {
 
     @Override
     public void markBlockRangeForRenderUpdate(BlockPos rangeMin, BlockPos rangeMax) {
+        invalidateClientInfo(rangeMin.getX(), rangeMin.getY(), rangeMin.getZ(), rangeMax.getX(), rangeMax.getY(), rangeMax.getZ());
         getActualWorld().markBlockRangeForRenderUpdate(rangeMin, rangeMax);
     }
 
     @Override
     public void markBlockRangeForRenderUpdate(int x1, int y1, int z1, int x2, int y2, int z2) {
+        invalidateClientInfo(x1, y1, z1, x2, y2, z2);
         getActualWorld().markBlockRangeForRenderUpdate(x1, y1, z1, x2, y2, z2);
     }
 
+    // Parts that ask for a re-render expect their model data to be fetched again
+    private void invalidateClientInfo(int x1, int y1, int z1, int x2, int y2, int z2) {
+        BlockPos pos = part.getPos();
+        if (pos.getX() >= Math.min(x1, x2) && pos.getX() <= Math.max(x1, x2) && pos.getY() >= Math.min(y1, y2)
+                && pos.getY() <= Math.max(y1, y2) && pos.getZ() >= Math.min(z1, z2) && pos.getZ() <= Math.max(z1, z2)) {
+            part.invalidateClientInfo();
+        }
+    }
+
     @Override
     public void updateObservingBlocksAt(BlockPos p_190522_1_, Block p_190522_2_) {
         getActualWorld().updateObservingBlocksAt(p_190522_1_, p_190522_2_);
@@ -827,11 +839,17 @@ public class MCMPWorldWrapper extends World implements IMultipartWorld {
 
     @Override
     public boolean checkLight(BlockPos pos) {
+        if (part.getPos().equals(pos)) {
+            part.getContainer().invalidateLight();
+        }
         return getActualWorld().checkLight(pos);
     }
 
     @Override
     public boolean checkLightFor(EnumSkyBlock lightType, BlockPos pos) {
+        if (part.getPos().equals(pos)) {
+            part.getContainer().invalidateLight();
+        }
         return getActualWorld().checkLightFor(lightType, pos);
     }
 